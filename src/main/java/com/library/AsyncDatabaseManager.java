@@ -0,0 +1,131 @@
+package com.library;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.application.Platform;
+
+/*
+ * Runs DatabaseManager calls off the JavaFX application thread. Writes go through a single
+ * thread so they reach the writer connection in submission order; reads share a small pool
+ * sized to the connection pool's readers. Every returned future completes on the FX thread,
+ * so callers can touch controls directly in thenAccept/whenComplete.
+ */
+public class AsyncDatabaseManager {
+    private static final int READ_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final DatabaseManager dbManager;
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(daemonThreads("db-write"));
+    private final ExecutorService readExecutor = Executors.newFixedThreadPool(READ_THREADS, daemonThreads("db-read"));
+
+    public AsyncDatabaseManager(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    public <T> CompletableFuture<T> read(Function<DatabaseManager, T> query) {
+        return onFxThread(CompletableFuture.supplyAsync(() -> query.apply(dbManager), readExecutor));
+    }
+
+    public <T> CompletableFuture<T> write(Function<DatabaseManager, T> update) {
+        return onFxThread(CompletableFuture.supplyAsync(() -> update.apply(dbManager), writeExecutor));
+    }
+
+    // Runs on the write thread behind any queued writes and waits for it; safe to call from the FX thread
+    public <T> T writeAndWait(Function<DatabaseManager, T> update, long timeoutSeconds)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return CompletableFuture.supplyAsync(() -> update.apply(dbManager), writeExecutor)
+            .get(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    public CompletableFuture<Void> run(Consumer<DatabaseManager> update) {
+        return write(db -> {
+            update.accept(db);
+            return null;
+        });
+    }
+
+    // Switching databases swaps the pool, so it is ordered behind any writes still queued for the old one
+    public CompletableFuture<List<PropertyApp.Property>> openAndLoad(String dbPath) {
+        return onFxThread(CompletableFuture.supplyAsync(() -> {
+            dbManager.setDatabase(dbPath);
+            return dbManager.loadProperties();
+        }, writeExecutor));
+    }
+
+    // Completes with null instead of loading when there are more than maxLoaded properties, so the caller can page them
+    public CompletableFuture<List<PropertyApp.Property>> openAndLoad(String dbPath, int maxLoaded) {
+        return onFxThread(CompletableFuture.supplyAsync(() -> {
+            dbManager.setDatabase(dbPath);
+            return dbManager.countProperties() > maxLoaded ? null : dbManager.loadProperties();
+        }, writeExecutor));
+    }
+
+    public CompletableFuture<List<PropertyApp.Property>> loadProperties() {
+        return read(DatabaseManager::loadProperties);
+    }
+
+    public CompletableFuture<PropertyDetails> getPropertyDetails(String propertyId) {
+        return read(db -> db.getPropertyDetails(propertyId));
+    }
+
+    // The property is copied on the calling thread so later edits cannot race the background write
+    public CompletableFuture<Void> saveProperty(PropertyApp.Property property) {
+        PropertyApp.Property snapshot = property.copy();
+        return run(db -> db.saveProperty(snapshot));
+    }
+
+    // Saves a copy like saveProperty; the ID of a new tenant is set on the original once the insert completes
+    public CompletableFuture<Void> saveTenant(Tenant tenant) {
+        Tenant snapshot = tenant.copy();
+        return write(db -> {
+            db.saveTenant(snapshot);
+            return snapshot.getId();
+        }).thenAccept(tenant::setId);
+    }
+
+    public CompletableFuture<Void> deleteProperty(String propertyId) {
+        return run(db -> db.deleteProperty(propertyId));
+    }
+
+    // Waits for queued writes so nothing is lost when the application closes
+    public void shutdown() {
+        writeExecutor.shutdown();
+        readExecutor.shutdown();
+        try {
+            writeExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> CompletableFuture<T> onFxThread(CompletableFuture<T> source) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        source.whenComplete((value, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        }));
+        return result;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
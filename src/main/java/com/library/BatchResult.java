@@ -0,0 +1,57 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchResult<T> {
+    private final int totalCount;
+    private int savedCount;
+    private final List<Failure<T>> failures = new ArrayList<>();
+
+    public BatchResult(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public static class Failure<T> {
+        private final int index;
+        private final T item;
+        private final String message;
+
+        public Failure(int index, T item, String message) {
+            this.index = index;
+            this.item = item;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+        public T getItem() { return item; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "row " + index + ": " + message;
+        }
+    }
+
+    void addSaved(int count) {
+        savedCount += count;
+    }
+
+    void addFailure(int index, T item, String message) {
+        failures.add(new Failure<>(index, item, message));
+    }
+
+    public int getTotalCount() { return totalCount; }
+    public int getSavedCount() { return savedCount; }
+    public List<Failure<T>> getFailures() { return Collections.unmodifiableList(failures); }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Saved %d of %d rows (%d failed)", savedCount, totalCount, failures.size());
+    }
+}
@@ -244,7 +244,14 @@ public class CommunicationManager {
     }
 
     public void sendBulkEmail(List<Tenant> tenants, String subject, String templateName, Map<String, String> parameters) {
-        for (Tenant tenant : tenants) {
+        sendBulkEmail(tenants, subject, templateName, parameters, TaskService.Progress.NONE);
+    }
+
+    // Reports each tenant as it is sent and stops before the next one once the task is cancelled
+    public void sendBulkEmail(List<Tenant> tenants, String subject, String templateName, Map<String, String> parameters,
+                              TaskService.Progress progress) {
+        for (int i = 0; i < tenants.size() && !progress.isCancelled(); i++) {
+            Tenant tenant = tenants.get(i);
             if (tenant.getEmailNotifications() && tenant.getEmail() != null && !tenant.getEmail().isEmpty()) {
                 // Add tenant-specific parameters
                 Map<String, String> tenantParams = new HashMap<>(parameters);
@@ -252,6 +259,7 @@ public class CommunicationManager {
                 sendEmail(tenant.getEmail(), subject, templateName, tenantParams);
                 tenant.updateLastContact("EMAIL");
             }
+            progress.update(i + 1, tenants.size(), (i + 1) + " of " + tenants.size() + " tenants");
         }
     }
 
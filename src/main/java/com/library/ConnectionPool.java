@@ -0,0 +1,179 @@
+package com.library;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.sqlite.SQLiteConfig;
+
+public class ConnectionPool implements AutoCloseable {
+    private static final int DEFAULT_READERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final long LEASE_TIMEOUT_MS = 30000;
+    private static final long CLOSE_TIMEOUT_MS = 10000;
+
+    private final String dbPath;
+    private final PooledConnection writer;
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final BlockingQueue<PooledConnection> idleReaders;
+    private final List<PooledConnection> readers = new ArrayList<>();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private volatile boolean closed;
+
+    public ConnectionPool(String dbPath) throws SQLException {
+        this(dbPath, DEFAULT_READERS);
+    }
+
+    public ConnectionPool(String dbPath, int readerCount) throws SQLException {
+        this.dbPath = dbPath;
+        this.idleReaders = new ArrayBlockingQueue<>(Math.max(1, readerCount));
+
+        // The writer opens first so the file exists and is switched to WAL before any reader attaches
+        SQLiteConfig writerConfig = new SQLiteConfig();
+        writerConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        writerConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        writerConfig.setBusyTimeout(BUSY_TIMEOUT_MS);
+        writerConfig.enforceForeignKeys(true);
+        this.writer = new PooledConnection(this, writerConfig.createConnection("jdbc:sqlite:" + dbPath));
+
+        try {
+            for (int i = 0; i < readerCount; i++) {
+                SQLiteConfig readerConfig = new SQLiteConfig();
+                readerConfig.setReadOnly(true);
+                readerConfig.setBusyTimeout(BUSY_TIMEOUT_MS);
+                PooledConnection reader = new PooledConnection(this, readerConfig.createConnection("jdbc:sqlite:" + dbPath));
+                readers.add(reader);
+                idleReaders.add(reader);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public String getDbPath() {
+        return dbPath;
+    }
+
+    // Exclusive lease on the single writer connection; re-entrant for the owning thread
+    public PooledConnection writer() throws SQLException {
+        ensureOpen();
+        try {
+            if (!writerLock.tryLock(LEASE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for the writer connection to " + dbPath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the writer connection", e);
+        }
+        writer.beginLease();
+        return writer;
+    }
+
+    // Shared lease on a reader; a thread already holding the writer reads through it so it sees its own writes
+    public PooledConnection reader() throws SQLException {
+        ensureOpen();
+        if (writerLock.isHeldByCurrentThread() || readers.isEmpty()) {
+            return writer();
+        }
+        try {
+            PooledConnection reader = idleReaders.poll(LEASE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (reader == null) {
+                throw new SQLException("Timed out waiting for a reader connection to " + dbPath);
+            }
+            // The pool may have started closing while this thread waited
+            if (closed) {
+                idleReaders.offer(reader);
+                throw new SQLException("Connection pool for " + dbPath + " is closed");
+            }
+            reader.beginLease();
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a reader connection", e);
+        }
+    }
+
+    void release(PooledConnection connection) {
+        connection.endLease();
+        if (connection == writer) {
+            writerLock.unlock();
+        } else {
+            // Returned even while closing, so close() can tell the lease has ended
+            idleReaders.offer(connection);
+        }
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.incrementAndGet();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.incrementAndGet();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool for " + dbPath + " is closed");
+        }
+    }
+
+    /*
+     * Stops new leases, then waits up to CLOSE_TIMEOUT_MS for every reader to be returned and for the
+     * writer lock, so a query running on another thread is not cut off mid-iteration. Connections
+     * still leased after the timeout are closed anyway.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MS);
+        int returnedReaders = 0;
+        boolean writerHeld = false;
+        try {
+            while (returnedReaders < readers.size()
+                    && idleReaders.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) != null) {
+                returnedReaders++;
+            }
+            writerHeld = writerLock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (returnedReaders < readers.size() || !writerHeld) {
+            System.err.println("Closing connection pool for " + dbPath + " with connections still leased");
+        }
+
+        try {
+            for (PooledConnection reader : readers) {
+                reader.closePhysical();
+            }
+            idleReaders.clear();
+            writer.closePhysical();
+        } finally {
+            if (writerHeld) {
+                writerLock.unlock();
+            }
+        }
+    }
+}
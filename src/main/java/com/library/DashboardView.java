@@ -8,6 +8,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import java.util.List;
+import java.util.Map;
 
 public class DashboardView extends VBox {
     private DatabaseManager dbManager;
@@ -32,6 +33,7 @@ public class DashboardView extends VBox {
     private HBox createSummaryCards() {
         HBox container = new HBox(20);
         container.setAlignment(Pos.CENTER_LEFT);
+        PortfolioSnapshot snapshot = PortfolioSnapshot.of(properties);
         String cardStyle = """
             -fx-background-color: white;
             -fx-padding: 10px 15px;
@@ -45,7 +47,7 @@ public class DashboardView extends VBox {
         // Total Properties Card
         VBox propertiesCard = new VBox(10);
         propertiesCard.setStyle(cardStyle);
-        Label propCount = new Label(String.valueOf(properties.size()));
+        Label propCount = new Label(String.valueOf(snapshot.size()));
         propCount.setFont(Font.font("System", FontWeight.BOLD, 18));
         Label propLabel = new Label("Total Properties");
         propertiesCard.getChildren().addAll(propCount, propLabel);
@@ -53,12 +55,7 @@ public class DashboardView extends VBox {
         // Occupancy Rate Card
         VBox occupancyCard = new VBox(10);
         occupancyCard.setStyle(cardStyle);
-        long rentedCount = properties.stream()
-            .filter(p -> p.getStatus().equals("Rented"))
-            .count();
-        double occupancyRate = properties.isEmpty() ? 0 : 
-            (double) rentedCount / properties.size() * 100;
-        Label occRate = new Label(String.format("%.1f%%", occupancyRate));
+        Label occRate = new Label(String.format("%.1f%%", snapshot.occupancyRate()));
         occRate.setFont(Font.font("System", FontWeight.BOLD, 18));
         Label occLabel = new Label("Occupancy Rate");
         occupancyCard.getChildren().addAll(occRate, occLabel);
@@ -66,15 +63,38 @@ public class DashboardView extends VBox {
         // Monthly Income Card
         VBox incomeCard = new VBox(10);
         incomeCard.setStyle(cardStyle);
-        double totalIncome = properties.stream()
-            .mapToDouble(PropertyApp.Property::getMonthlyProfit)
-            .sum();
-        Label incomeAmount = new Label(String.format("£%.2f", totalIncome));
+        Label incomeAmount = new Label(Money.format(snapshot.totalProfitPence()));
         incomeAmount.setFont(Font.font("System", FontWeight.BOLD, 18));
         Label incomeLabel = new Label("Monthly Income");
         incomeCard.getChildren().addAll(incomeAmount, incomeLabel);
 
-        container.getChildren().addAll(propertiesCard, occupancyCard, incomeCard);
+        // Expenses and Maintenance Cards, from one grouped query rather than a query per property
+        Map<String, PropertyRollup> rollups = dbManager.getPortfolioRollups();
+        long totalExpenses = 0;
+        int openMaintenance = 0;
+        for (PropertyApp.Property property : properties) {
+            PropertyRollup rollup = rollups.get(property.getPropertyId());
+            if (rollup != null) {
+                totalExpenses += rollup.totalExpenses().pence();
+                openMaintenance += rollup.openMaintenanceCount();
+            }
+        }
+
+        VBox expensesCard = new VBox(10);
+        expensesCard.setStyle(cardStyle);
+        Label expensesAmount = new Label(Money.format(totalExpenses));
+        expensesAmount.setFont(Font.font("System", FontWeight.BOLD, 18));
+        Label expensesLabel = new Label("Total Expenses");
+        expensesCard.getChildren().addAll(expensesAmount, expensesLabel);
+
+        VBox maintenanceCard = new VBox(10);
+        maintenanceCard.setStyle(cardStyle);
+        Label maintenanceCount = new Label(String.valueOf(openMaintenance));
+        maintenanceCount.setFont(Font.font("System", FontWeight.BOLD, 18));
+        Label maintenanceLabel = new Label("Open Maintenance");
+        maintenanceCard.getChildren().addAll(maintenanceCount, maintenanceLabel);
+
+        container.getChildren().addAll(propertiesCard, occupancyCard, incomeCard, expensesCard, maintenanceCard);
         return container;
     }
 }
\ No newline at end of file
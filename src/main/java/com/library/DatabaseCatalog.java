@@ -0,0 +1,186 @@
+package com.library;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Keeps the most recently used per-user databases open. Opening a pool and running the schema
+ * check happens once per database; switching back to a warm database only moves it to the
+ * front of the LRU. Each database carries its own settings, details cache and statistics, so
+ * tuning or cached entities for one user never leak into another's session.
+ */
+public class DatabaseCatalog implements AutoCloseable {
+    private static final int DEFAULT_MAX_OPEN = 4;
+
+    @FunctionalInterface
+    interface PoolOpener {
+        ConnectionPool open(String dbPath, Settings settings) throws SQLException;
+    }
+
+    // Tuning applied whenever the database becomes the active one
+    public static class Settings {
+        private int readerCount = -1;
+        private int fetchSize = 256;
+        private int batchChunkSize = 500;
+        private long detailsCacheRows = 20000;
+
+        public Settings copy() {
+            Settings copy = new Settings();
+            copy.readerCount = readerCount;
+            copy.fetchSize = fetchSize;
+            copy.batchChunkSize = batchChunkSize;
+            copy.detailsCacheRows = detailsCacheRows;
+            return copy;
+        }
+
+        // A negative reader count means the pool's default
+        public int getReaderCount() { return readerCount; }
+        public Settings setReaderCount(int readerCount) { this.readerCount = readerCount; return this; }
+
+        public int getFetchSize() { return fetchSize; }
+        public Settings setFetchSize(int fetchSize) { this.fetchSize = Math.max(1, fetchSize); return this; }
+
+        public int getBatchChunkSize() { return batchChunkSize; }
+        public Settings setBatchChunkSize(int batchChunkSize) { this.batchChunkSize = Math.max(1, batchChunkSize); return this; }
+
+        public long getDetailsCacheRows() { return detailsCacheRows; }
+        public Settings setDetailsCacheRows(long detailsCacheRows) { this.detailsCacheRows = detailsCacheRows; return this; }
+    }
+
+    // Point-in-time statistics for one database
+    public record Stats(String dbPath, boolean open, long opens, long warmHits, long lastOpenMillis,
+                        long statementCacheHits, long statementCacheMisses, String detailsCache) {
+    }
+
+    static class Entry {
+        private final String dbPath;
+        private final Settings settings;
+        private final PropertyDetailsCache detailsCache;
+        private ConnectionPool pool;
+        private long opens;
+        private long warmHits;
+        private long lastOpenMillis;
+
+        Entry(String dbPath, Settings settings) {
+            this.dbPath = dbPath;
+            this.settings = settings;
+            this.detailsCache = new PropertyDetailsCache(settings.getDetailsCacheRows());
+        }
+
+        String dbPath() { return dbPath; }
+        ConnectionPool pool() { return pool; }
+        Settings settings() { return settings; }
+        PropertyDetailsCache detailsCache() { return detailsCache; }
+
+        boolean isOpen() {
+            return pool != null && !pool.isClosed();
+        }
+
+        void closePool() {
+            if (isOpen()) {
+                pool.close();
+            }
+            pool = null;
+        }
+
+        Stats stats() {
+            ConnectionPool current = pool;
+            return new Stats(dbPath, isOpen(), opens, warmHits, lastOpenMillis,
+                current != null ? current.getStatementCacheHits() : 0,
+                current != null ? current.getStatementCacheMisses() : 0,
+                detailsCache.toString());
+        }
+    }
+
+    private final PoolOpener opener;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Settings defaultSettings = new Settings();
+    private int maxOpen = DEFAULT_MAX_OPEN;
+
+    DatabaseCatalog(PoolOpener opener) {
+        this.opener = opener;
+    }
+
+    // Returns the database's entry with an open pool, opening and schema-checking it only when it is cold
+    synchronized Entry acquire(String dbPath) throws SQLException {
+        Entry entry = entries.computeIfAbsent(dbPath, path -> new Entry(path, defaultSettings.copy()));
+        if (entry.isOpen()) {
+            entry.warmHits++;
+        } else {
+            long started = System.nanoTime();
+            entry.pool = opener.open(dbPath, entry.settings);
+            entry.lastOpenMillis = (System.nanoTime() - started) / 1_000_000;
+            entry.opens++;
+        }
+        closeColdest(entry);
+        return entry;
+    }
+
+    // Closes the database's pool but keeps its settings and statistics, e.g. before its file is replaced
+    synchronized void release(String dbPath) {
+        Entry entry = entries.get(dbPath);
+        if (entry != null) {
+            entry.closePool();
+            entry.detailsCache.invalidateAll();
+        }
+    }
+
+    // Only pools are closed on eviction; settings and statistics survive for when the user returns
+    private void closeColdest(Entry current) {
+        int open = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.isOpen()) {
+                open++;
+            }
+        }
+        Iterator<Entry> it = entries.values().iterator();
+        while (open > maxOpen && it.hasNext()) {
+            Entry entry = it.next();
+            if (entry != current && entry.isOpen()) {
+                entry.closePool();
+                entry.detailsCache.invalidateAll();
+                open--;
+            }
+        }
+    }
+
+    public synchronized Settings getSettings(String dbPath) {
+        return entries.computeIfAbsent(dbPath, path -> new Entry(path, defaultSettings.copy())).settings;
+    }
+
+    public synchronized Settings getDefaultSettings() {
+        return defaultSettings;
+    }
+
+    public synchronized void setMaxOpen(int maxOpen) {
+        this.maxOpen = Math.max(1, maxOpen);
+        Entry newest = null;
+        for (Entry entry : entries.values()) {
+            newest = entry;
+        }
+        closeColdest(newest);
+    }
+
+    public synchronized int getMaxOpen() {
+        return maxOpen;
+    }
+
+    public synchronized List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            stats.add(entry.stats());
+        }
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Entry entry : entries.values()) {
+            entry.closePool();
+        }
+    }
+}
@@ -1,27 +1,134 @@
 package com.library;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.io.File;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
 
 public class DatabaseManager {
     private static DatabaseManager instance;
-    private Connection connection;
-    private String dbPath;
+    // Stays well under SQLite's default limit of 999 bound parameters per statement
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    // Upserts rather than INSERT OR REPLACE: a REPLACE deletes the old row first, which would cascade to its children
+    private static final String SAVE_PROPERTY_SQL = """
+        INSERT INTO properties
+        (property_id, owner_name, address, monthly_rent, monthly_mortgage, status,
+         bedrooms, living_rooms, kitchens, house_type, bathrooms, description, display_order)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
+                (SELECT COALESCE(MAX(display_order), 0) + 1 FROM properties))
+        ON CONFLICT(property_id) DO UPDATE SET
+            owner_name = excluded.owner_name,
+            address = excluded.address,
+            monthly_rent = excluded.monthly_rent,
+            monthly_mortgage = excluded.monthly_mortgage,
+            status = excluded.status,
+            bedrooms = excluded.bedrooms,
+            living_rooms = excluded.living_rooms,
+            kitchens = excluded.kitchens,
+            house_type = excluded.house_type,
+            bathrooms = excluded.bathrooms,
+            description = excluded.description
+    """;
+
+    private static final String SAVE_TENANT_SQL = """
+        INSERT INTO tenants
+        (id, name, email, phone, property_id, lease_start_date, lease_end_date, deposit_amount)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT(id) DO UPDATE SET
+            name = excluded.name,
+            email = excluded.email,
+            phone = excluded.phone,
+            property_id = excluded.property_id,
+            lease_start_date = excluded.lease_start_date,
+            lease_end_date = excluded.lease_end_date,
+            deposit_amount = excluded.deposit_amount
+    """;
+
+    private static final String SAVE_MAINTENANCE_SQL = """
+        INSERT OR REPLACE INTO maintenance_requests
+        (id, property_id, description, status, priority, reported_date,
+         completed_date, cost, notes)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String SAVE_RENT_PAYMENT_SQL = """
+        INSERT OR REPLACE INTO rent_payments
+        (id, tenant_id, amount, payment_date, payment_method, notes)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String SAVE_EXPENSE_SQL = """
+        INSERT OR REPLACE INTO property_expenses
+        (id, property_id, description, amount, expense_date, category, notes)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final int BACKUP_PAGES_PER_STEP = 64;
+    private static final long BACKUP_STEP_PAUSE_MS = 5;
+    private static final int BACKUP_BUSY_SLEEP_MS = 100;
+    private static final int BACKUP_BUSY_RETRIES = 50;
+
+    // Warm pools for recently used databases; pool, settings and details cache below belong to the active one
+    private final DatabaseCatalog catalog = new DatabaseCatalog(DatabaseManager::openPool);
+    private volatile DatabaseCatalog.Entry active;
+    private volatile ConnectionPool pool;
+    private volatile String dbPath;
+    private int batchChunkSize;
+    private int fetchSize;
+    private volatile PropertyDetailsCache detailsCache;
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    // A row's INTEGER PRIMARY KEY, 0 or less until SQLite assigns one on insert; archive is the
+    // history source whose archived rows must not be saved again, or null
+    private record GeneratedKey<T>(ToIntFunction<T> get, ObjIntConsumer<T> set, HistoryArchive.Source archive) {
+    }
 
     private DatabaseManager() {
-        // Default to admin database
+        // Default to admin database; it is only opened if something uses it before a user database is selected
         this.dbPath = getDatabasePath("db/property_management_admin.db");
-        initializeDatabase();
+        this.detailsCache = new PropertyDetailsCache(catalog.getDefaultSettings().getDetailsCacheRows());
+        this.fetchSize = catalog.getDefaultSettings().getFetchSize();
+        this.batchChunkSize = catalog.getDefaultSettings().getBatchChunkSize();
     }
 
-    public static DatabaseManager getInstance() {
+    public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
             instance = new DatabaseManager();
         }
@@ -52,39 +159,79 @@ public class DatabaseManager {
 
     public static void createNewDatabase(String dbPath) {
         String resolvedPath = getDatabasePath(dbPath);
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + resolvedPath)) {
-            // Create all tables in the new database
-            DatabaseManager tempManager = new DatabaseManager();
-            tempManager.connection = conn;
-            tempManager.createTables();
+        try (ConnectionPool newPool = new ConnectionPool(resolvedPath, 0)) {
+            // Create all tables in the new database and bring it to the latest schema
+            prepareSchema(newPool);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    // Switching to a database that is still warm in the catalog skips the open and schema check
     public void setDatabase(String dbPath) {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-            this.dbPath = dbPath;
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+            activate(catalog.acquire(dbPath));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private void initializeDatabase() {
+    private synchronized void activate(DatabaseCatalog.Entry entry) {
+        DatabaseCatalog.Settings settings = entry.settings();
+        this.dbPath = entry.dbPath();
+        this.fetchSize = settings.getFetchSize();
+        this.batchChunkSize = settings.getBatchChunkSize();
+        entry.detailsCache().setMaxWeight(settings.getDetailsCacheRows());
+        this.detailsCache = entry.detailsCache();
+        this.active = entry;
+        this.pool = entry.pool();
+    }
+
+    // Opens the default database on first use if no user database has been selected yet
+    private ConnectionPool pool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null || current.isClosed()) {
+            synchronized (this) {
+                if (pool == null || pool.isClosed()) {
+                    activate(catalog.acquire(dbPath));
+                }
+                current = pool;
+            }
+        }
+        return current;
+    }
+
+    public DatabaseCatalog getCatalog() {
+        return catalog;
+    }
+
+    private static ConnectionPool openPool(String dbPath, DatabaseCatalog.Settings settings) throws SQLException {
+        ConnectionPool newPool = settings.getReaderCount() >= 0
+            ? new ConnectionPool(dbPath, settings.getReaderCount())
+            : new ConnectionPool(dbPath);
         try {
-            // Create a new connection and tables (if they don't exist)
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
-            createTables();
-        } catch (Exception e) {
-            e.printStackTrace();
+            prepareSchema(newPool);
+        } catch (SQLException e) {
+            newPool.close();
+            throw e;
+        }
+        return newPool;
+    }
+
+    private static void prepareSchema(ConnectionPool targetPool) throws SQLException {
+        try (PooledConnection conn = targetPool.writer()) {
+            createTables(conn.connection());
+            SchemaMigrator.migrate(conn.connection());
         }
     }
 
-    private void createTables() {
+    // Closes the active database's pool, keeping its catalog entry; the next use reopens it
+    private synchronized void releaseActive() {
+        catalog.release(dbPath);
+        pool = null;
+    }
+
+    private static void createTables(Connection connection) {
         try (Statement stmt = connection.createStatement()) {
             // Property expenses table
             String expensesSql = """
@@ -207,92 +354,70 @@ public class DatabaseManager {
             return;
         }
 
-        String sql = """
-            INSERT OR REPLACE INTO properties 
-            (property_id, owner_name, address, monthly_rent, monthly_mortgage, status,
-             bedrooms, living_rooms, kitchens, house_type, bathrooms, description)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, property.getPropertyId());
-            pstmt.setString(2, property.getOwnerName());
-            pstmt.setString(3, property.getAddress());
-            pstmt.setDouble(4, property.getMonthlyRent());
-            pstmt.setDouble(5, property.getMonthlyMortgage());
-            pstmt.setString(6, property.getStatus());
-            pstmt.setInt(7, property.getBedrooms());
-            pstmt.setInt(8, property.getLivingRooms());
-            pstmt.setInt(9, property.getKitchens());
-            pstmt.setString(10, property.getHouseType());
-            pstmt.setInt(11, property.getBathrooms());
-            pstmt.setString(12, property.getDescription());
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(SAVE_PROPERTY_SQL);
+            bindProperty(pstmt, property);
             pstmt.executeUpdate();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private static void bindProperty(PreparedStatement pstmt, PropertyApp.Property property) throws SQLException {
+        pstmt.setString(1, property.getPropertyId());
+        pstmt.setString(2, property.getOwnerName());
+        pstmt.setString(3, property.getAddress());
+        pstmt.setLong(4, property.getMonthlyRentPence());
+        pstmt.setLong(5, property.getMonthlyMortgagePence());
+        pstmt.setString(6, property.getStatus());
+        pstmt.setInt(7, property.getBedrooms());
+        pstmt.setInt(8, property.getLivingRooms());
+        pstmt.setInt(9, property.getKitchens());
+        pstmt.setString(10, property.getHouseType());
+        pstmt.setInt(11, property.getBathrooms());
+        pstmt.setString(12, property.getDescription());
+    }
+
+    // Child rows go with the property through ON DELETE CASCADE; other properties keep their IDs
     public void deleteProperty(String propertyId) {
         String sql = "DELETE FROM properties WHERE property_id = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
             pstmt.executeUpdate();
-            reorderPropertyIds();
+            detailsCache.invalidate(propertyId);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private void reorderPropertyIds() {
-        List<PropertyApp.Property> properties = loadProperties();
-        // Clear the table
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute("DELETE FROM properties");
+    // Changes a property's ID in place; ON UPDATE CASCADE carries tenants, expenses and payments along
+    public boolean renameProperty(String oldId, String newId) {
+        String sql = "UPDATE properties SET property_id = ? WHERE property_id = ?";
+
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, newId);
+            pstmt.setString(2, oldId);
+            boolean renamed = pstmt.executeUpdate() > 0;
+            detailsCache.invalidate(oldId);
+            detailsCache.invalidate(newId);
+            return renamed;
         } catch (Exception e) {
             e.printStackTrace();
-            return;
-        }
-
-        // Reinsert with new IDs
-        for (int i = 0; i < properties.size(); i++) {
-            PropertyApp.Property property = properties.get(i);
-            PropertyApp.Property updatedProperty = new PropertyApp.Property(
-                String.format("P%03d", i + 1),
-                property.getOwnerName(),
-                property.getAddress(),
-                property.getMonthlyRent(),
-                property.getMonthlyMortgage(),
-                property.getStatus()
-            );
-            saveProperty(updatedProperty);
+            return false;
         }
     }
 
     public List<PropertyApp.Property> loadProperties() {
         List<PropertyApp.Property> properties = new ArrayList<>();
-        String sql = "SELECT * FROM properties ORDER BY property_id";
+        String sql = "SELECT * FROM properties ORDER BY display_order, property_id";
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
+        try (PooledConnection conn = pool().reader();
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
             while (rs.next()) {
-                PropertyApp.Property property = new PropertyApp.Property(
-                    rs.getString("property_id"),
-                    rs.getString("owner_name"),
-                    rs.getString("address"),
-                    rs.getDouble("monthly_rent"),
-                    rs.getDouble("monthly_mortgage"),
-                    rs.getString("status")
-                );
-                property.setBedrooms(rs.getInt("bedrooms"));
-                property.setLivingRooms(rs.getInt("living_rooms"));
-                property.setKitchens(rs.getInt("kitchens"));
-                property.setHouseType(rs.getString("house_type"));
-                property.setBathrooms(rs.getInt("bathrooms"));
-                property.setDescription(rs.getString("description"));
-                properties.add(property);
+                properties.add(mapProperty(rs));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -301,54 +426,250 @@ public class DatabaseManager {
         return properties;
     }
 
-    // Tenant management methods
-    public void saveTenant(Tenant tenant) {
+    /*
+     * Orders the properties table can be paged in. Each pages on (sort key, property_id), which
+     * migration 9 indexes, so fetching the next page is an index seek however deep it is.
+     */
+    public enum PropertySort {
+        DISPLAY_ORDER("display_order", false),
+        PROPERTY_ID("property_id", false),
+        RENT_DESC("monthly_rent", true),
+        // Must stay identical to the expression indexed by idx_properties_profit_id
+        PROFIT_DESC("CASE WHEN status = 'Vacant' THEN 0 ELSE monthly_rent - monthly_mortgage END", true);
+
+        private final String sortExpression;
+        private final boolean descending;
+
+        PropertySort(String sortExpression, boolean descending) {
+            this.sortExpression = sortExpression;
+            this.descending = descending;
+        }
+
+        private String orderBy() {
+            String direction = descending ? " DESC" : "";
+            return " ORDER BY " + sortExpression + direction + ", property_id" + direction;
+        }
+    }
+
+    // Position of a row in a PropertySort order; a page starts just after it
+    public record PageKey(Object sortKey, String propertyId) {
+    }
+
+    // last is the key to continue from, or null when the page is empty
+    public record PropertyPage(List<PropertyApp.Property> rows, PageKey last) {
+    }
+
+    public record PortfolioAggregates(int count, int rentedCount, long totalRentPence, long totalMortgagePence,
+                                      long totalProfitPence) {
+    }
+
+    // Up to limit properties following after (or from the start when after is null), without OFFSET
+    public PropertyPage loadPropertyPage(PropertySort sort, PageKey after, int limit) {
+        List<PropertyApp.Property> rows = new ArrayList<>();
+        PageKey last = null;
+        String select = "SELECT *, " + sort.sortExpression + " AS sort_key FROM properties";
+        String orderBy = sort.orderBy() + " LIMIT ?";
+
+        try (PooledConnection conn = pool().reader()) {
+            if (after == null) {
+                last = readPropertyPage(conn, select + orderBy, rows, limit);
+            } else if (after.sortKey() == null) {
+                // NULL keys never compare equal, so ties among them are stepped through on property_id alone
+                last = readPropertyPage(conn, select + " WHERE " + sort.sortExpression + " IS NULL AND property_id "
+                    + (sort.descending ? "<" : ">") + " ?" + orderBy, rows, limit, after.propertyId());
+                // NULL sorts first, so ascending every non-NULL key still follows
+                if (!sort.descending && rows.size() < limit) {
+                    last = lastOf(last, readPropertyPage(conn, select + " WHERE " + sort.sortExpression
+                        + " IS NOT NULL" + orderBy, rows, limit - rows.size()));
+                }
+            } else {
+                // The plain bound on the sort key lets SQLite seek the expression index, which it will not do
+                // for the row-value comparison alone; the row value then skips ties already shown
+                last = readPropertyPage(conn, select + " WHERE " + sort.sortExpression
+                    + (sort.descending ? " <= ?" : " >= ?") + " AND (" + sort.sortExpression + ", property_id) "
+                    + (sort.descending ? "<" : ">") + " (?, ?)" + orderBy, rows, limit,
+                    after.sortKey(), after.sortKey(), after.propertyId());
+                // NULL sorts last descending, after every non-NULL key
+                if (sort.descending && rows.size() < limit) {
+                    last = lastOf(last, readPropertyPage(conn, select + " WHERE " + sort.sortExpression
+                        + " IS NULL" + orderBy, rows, limit - rows.size()));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return new PropertyPage(rows, last);
+    }
+
+    // Appends up to limit rows to rows and returns the key of the last one, or null when there were none
+    private PageKey readPropertyPage(PooledConnection conn, String sql, List<PropertyApp.Property> rows, int limit,
+                                     Object... params) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(sql);
+        int index = 1;
+        for (Object param : params) {
+            pstmt.setObject(index++, param);
+        }
+        pstmt.setInt(index, limit);
+        pstmt.setFetchSize(limit);
+        PageKey last = null;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(mapProperty(rs));
+                last = new PageKey(rs.getObject("sort_key"), rs.getString("property_id"));
+            }
+        }
+        return last;
+    }
+
+    private static PageKey lastOf(PageKey earlier, PageKey later) {
+        return later != null ? later : earlier;
+    }
+
+    /*
+     * The key of the row just before position offset, so a page can start anywhere without walking
+     * the pages in front of it. The skip runs over the (sort key, property_id) index alone; null
+     * for offset 0 or past the end.
+     */
+    public PageKey findPageAnchor(PropertySort sort, int offset) {
+        if (offset <= 0) {
+            return null;
+        }
+        String sql = "SELECT " + sort.sortExpression + " AS sort_key, property_id FROM properties"
+            + sort.orderBy() + " LIMIT 1 OFFSET ?";
+
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, offset - 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new PageKey(rs.getObject("sort_key"), rs.getString("property_id"));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public int countProperties() {
+        try (PooledConnection conn = pool().reader();
+             ResultSet rs = conn.prepare("SELECT COUNT(*) FROM properties").executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    public boolean propertyExists(String propertyId) {
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare("SELECT 1 FROM properties WHERE property_id = ?");
+            pstmt.setString(1, propertyId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // The totals bar and summary cards for a portfolio that is not held in memory
+    public PortfolioAggregates getPortfolioAggregates() {
         String sql = """
-            INSERT OR REPLACE INTO tenants 
-            (id, name, email, phone, property_id, lease_start_date, lease_end_date, 
-             deposit_amount, documents, payment_history)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            SELECT COUNT(*) AS n,
+                   COALESCE(SUM(status = 'Rented'), 0) AS rented,
+                   COALESCE(SUM(monthly_rent), 0) AS rent,
+                   COALESCE(SUM(monthly_mortgage), 0) AS mortgage,
+                   COALESCE(SUM(CASE WHEN status = 'Vacant' THEN 0 ELSE monthly_rent - monthly_mortgage END), 0) AS profit
+            FROM properties
         """;
+        try (PooledConnection conn = pool().reader();
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
+            if (rs.next()) {
+                return new PortfolioAggregates(rs.getInt("n"), rs.getInt("rented"), rs.getLong("rent"),
+                    rs.getLong("mortgage"), rs.getLong("profit"));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new PortfolioAggregates(0, 0, 0, 0, 0);
+    }
+
+    private static PropertyApp.Property mapProperty(ResultSet rs) throws SQLException {
+        PropertyApp.Property property = new PropertyApp.Property(
+            rs.getString("property_id"),
+            rs.getString("owner_name"),
+            rs.getString("address"),
+            0,
+            0,
+            rs.getString("status")
+        );
+        property.setMonthlyRentPence(rs.getLong("monthly_rent"));
+        property.setMonthlyMortgagePence(rs.getLong("monthly_mortgage"));
+        property.setBedrooms(rs.getInt("bedrooms"));
+        property.setLivingRooms(rs.getInt("living_rooms"));
+        property.setKitchens(rs.getInt("kitchens"));
+        property.setHouseType(rs.getString("house_type"));
+        property.setBathrooms(rs.getInt("bathrooms"));
+        property.setDescription(rs.getString("description"));
+        return property;
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, tenant.getId());
-            pstmt.setString(2, tenant.getName());
-            pstmt.setString(3, tenant.getEmail());
-            pstmt.setString(4, tenant.getPhone());
-            pstmt.setString(5, tenant.getPropertyId());
-            pstmt.setString(6, tenant.getLeaseStartDate().toString());
-            pstmt.setString(7, tenant.getLeaseEndDate().toString());
-            pstmt.setDouble(8, tenant.getDepositAmount());
-            pstmt.setString(9, tenant.getDocuments());
-            pstmt.setString(10, tenant.getPaymentHistory());
+    // Tenant management methods
+    public void saveTenant(Tenant tenant) {
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(SAVE_TENANT_SQL);
+            bindTenant(pstmt, tenant);
             pstmt.executeUpdate();
+            if (tenant.getId() <= 0) {
+                tenant.setId(lastInsertId(conn));
+            }
+            invalidateTenant(tenant);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private static void bindTenant(PreparedStatement pstmt, Tenant tenant) throws SQLException {
+        bindId(pstmt, 1, tenant.getId());
+        pstmt.setString(2, tenant.getName());
+        pstmt.setString(3, tenant.getEmail());
+        pstmt.setString(4, tenant.getPhone());
+        pstmt.setString(5, tenant.getPropertyId());
+        bindDate(pstmt, 6, tenant.getLeaseStartDate());
+        bindDate(pstmt, 7, tenant.getLeaseEndDate());
+        pstmt.setLong(8, Money.toPence(tenant.getDepositAmount()));
+    }
+
     public List<Tenant> getTenantsForProperty(String propertyId) {
         List<Tenant> tenants = new ArrayList<>();
         String sql = "SELECT * FROM tenants WHERE property_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            ResultSet rs = pstmt.executeQuery();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tenants.add(mapTenant(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return tenants;
+    }
+
+    public List<Tenant> getAllTenants() {
+        List<Tenant> tenants = new ArrayList<>();
+        String sql = "SELECT * FROM tenants ORDER BY property_id, id";
 
+        try (PooledConnection conn = pool().reader();
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
             while (rs.next()) {
-                Tenant tenant = new Tenant(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getString("property_id"),
-                    LocalDate.parse(rs.getString("lease_start_date")),
-                    LocalDate.parse(rs.getString("lease_end_date")),
-                    rs.getDouble("deposit_amount")
-                );
-                tenant.setDocuments(rs.getString("documents"));
-                tenant.setPaymentHistory(rs.getString("payment_history"));
-                tenants.add(tenant);
+                tenants.add(mapTenant(rs));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -357,56 +678,139 @@ public class DatabaseManager {
         return tenants;
     }
 
+    // Tenants grouped by property, fetched with chunked IN (...) queries rather than one query per property
+    public Map<String, List<Tenant>> getTenantsForProperties(Collection<String> propertyIds) {
+        Map<String, List<Tenant>> tenantsByProperty = new HashMap<>();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(propertyIds));
+        if (ids.isEmpty()) {
+            return tenantsByProperty;
+        }
+
+        try (PooledConnection conn = pool().reader()) {
+            for (int start = 0; start < ids.size(); start += IN_CLAUSE_CHUNK_SIZE) {
+                List<String> chunk = ids.subList(start, Math.min(start + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT * FROM tenants WHERE property_id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY property_id, id";
+                PreparedStatement pstmt = conn.prepare(sql);
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Tenant tenant = mapTenant(rs);
+                        tenantsByProperty.computeIfAbsent(tenant.getPropertyId(), id -> new ArrayList<>()).add(tenant);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return tenantsByProperty;
+    }
+
+    private static Tenant mapTenant(ResultSet rs) throws SQLException {
+        Tenant tenant = new Tenant(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getString("phone"),
+            rs.getString("property_id"),
+            readDate(rs, "lease_start_date"),
+            readDate(rs, "lease_end_date"),
+            Money.toPounds(rs.getLong("deposit_amount"))
+        );
+        return tenant;
+    }
+
+    // Tenant documents: one row per document, so adding or removing one never rewrites the tenant
+    public void addTenantDocument(int tenantId, String documentPath) {
+        String sql = "INSERT OR IGNORE INTO tenant_documents (tenant_id, document_path, added_date) VALUES (?, ?, ?)";
+
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, tenantId);
+            pstmt.setString(2, documentPath);
+            bindDate(pstmt, 3, LocalDate.now());
+            pstmt.executeUpdate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void removeTenantDocument(int tenantId, String documentPath) {
+        String sql = "DELETE FROM tenant_documents WHERE tenant_id = ? AND document_path = ?";
+
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, tenantId);
+            pstmt.setString(2, documentPath);
+            pstmt.executeUpdate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public List<String> getTenantDocuments(int tenantId) {
+        List<String> documents = new ArrayList<>();
+        String sql = "SELECT document_path FROM tenant_documents WHERE tenant_id = ? ORDER BY id";
+
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, tenantId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    documents.add(rs.getString("document_path"));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return documents;
+    }
+
     // Maintenance request methods
     public void saveMaintenanceRequest(MaintenanceRequest request) {
-        String sql = """
-            INSERT OR REPLACE INTO maintenance_requests 
-            (id, property_id, description, status, priority, reported_date, 
-             completed_date, cost, notes)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, request.getId());
-            pstmt.setString(2, request.getPropertyId());
-            pstmt.setString(3, request.getDescription());
-            pstmt.setString(4, request.getStatus());
-            pstmt.setString(5, request.getPriority());
-            pstmt.setString(6, request.getReportedDate().toString());
-            pstmt.setString(7, request.getCompletedDate() != null ? 
-                request.getCompletedDate().toString() : null);
-            pstmt.setDouble(8, request.getCost());
-            pstmt.setString(9, request.getNotes());
+        try (PooledConnection conn = pool().writer()) {
+            HistoryArchive.rejectArchived(conn, HistoryArchive.MAINTENANCE, request.getId());
+            PreparedStatement pstmt = conn.prepare(SAVE_MAINTENANCE_SQL);
+            bindMaintenanceRequest(pstmt, request);
             pstmt.executeUpdate();
+            if (request.getId() <= 0) {
+                request.setId(lastInsertId(conn));
+            }
+            invalidateMaintenanceRequest(request);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private static void bindMaintenanceRequest(PreparedStatement pstmt, MaintenanceRequest request) throws SQLException {
+        bindId(pstmt, 1, request.getId());
+        pstmt.setString(2, request.getPropertyId());
+        pstmt.setString(3, request.getDescription());
+        pstmt.setString(4, request.getStatus());
+        pstmt.setString(5, request.getPriority());
+        bindDate(pstmt, 6, request.getReportedDate());
+        bindDate(pstmt, 7, request.getCompletedDate());
+        pstmt.setLong(8, Money.toPence(request.getCost()));
+        pstmt.setString(9, request.getNotes());
+    }
+
+    // Full history, archived requests included
     public List<MaintenanceRequest> getMaintenanceRequests(String propertyId) {
         List<MaintenanceRequest> requests = new ArrayList<>();
-        String sql = "SELECT * FROM maintenance_requests WHERE property_id = ? ORDER BY reported_date DESC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT * FROM " + HistoryArchive.rangeSource(conn, HistoryArchive.MAINTENANCE, null, null)
+                + " WHERE property_id = ? ORDER BY reported_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                MaintenanceRequest request = new MaintenanceRequest(
-                    rs.getInt("id"),
-                    rs.getString("property_id"),
-                    rs.getString("description"),
-                    rs.getString("priority")
-                );
-                request.setStatus(rs.getString("status"));
-                request.setReportedDate(LocalDate.parse(rs.getString("reported_date")));
-                String completedDate = rs.getString("completed_date");
-                if (completedDate != null) {
-                    request.setCompletedDate(LocalDate.parse(completedDate));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    requests.add(mapMaintenanceRequest(rs));
                 }
-                request.setCost(rs.getDouble("cost"));
-                request.setNotes(rs.getString("notes"));
-                requests.add(request);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -415,45 +819,58 @@ public class DatabaseManager {
         return requests;
     }
 
+    private static MaintenanceRequest mapMaintenanceRequest(ResultSet rs) throws SQLException {
+        MaintenanceRequest request = new MaintenanceRequest(
+            rs.getInt("id"),
+            rs.getString("property_id"),
+            rs.getString("description"),
+            rs.getString("priority")
+        );
+        request.setStatus(rs.getString("status"));
+        request.setReportedDate(readDate(rs, "reported_date"));
+        request.setCompletedDate(readDate(rs, "completed_date"));
+        request.setCost(Money.toPounds(rs.getLong("cost")));
+        request.setNotes(rs.getString("notes"));
+        return request;
+    }
+
     // Rent payment methods
     public void saveRentPayment(RentPayment payment) {
-        String sql = """
-            INSERT OR REPLACE INTO rent_payments 
-            (id, tenant_id, amount, payment_date, payment_method, notes)
-            VALUES (?, ?, ?, ?, ?, ?)
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, payment.getId());
-            pstmt.setInt(2, payment.getTenantId());
-            pstmt.setDouble(3, payment.getAmount());
-            pstmt.setString(4, payment.getPaymentDate().toString());
-            pstmt.setString(5, payment.getPaymentMethod());
-            pstmt.setString(6, payment.getNotes());
+        try (PooledConnection conn = pool().writer()) {
+            HistoryArchive.rejectArchived(conn, HistoryArchive.RENT_PAYMENTS, payment.getId());
+            PreparedStatement pstmt = conn.prepare(SAVE_RENT_PAYMENT_SQL);
+            bindRentPayment(pstmt, payment);
             pstmt.executeUpdate();
+            if (payment.getId() <= 0) {
+                payment.setId(lastInsertId(conn));
+            }
+            invalidateRentPayment(payment);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private static void bindRentPayment(PreparedStatement pstmt, RentPayment payment) throws SQLException {
+        bindId(pstmt, 1, payment.getId());
+        pstmt.setInt(2, payment.getTenantId());
+        pstmt.setLong(3, Money.toPence(payment.getAmount()));
+        bindDate(pstmt, 4, payment.getPaymentDate());
+        pstmt.setString(5, payment.getPaymentMethod());
+        pstmt.setString(6, payment.getNotes());
+    }
+
+    // A tenant's payment history, served by idx_rent_payments_tenant_date
     public List<RentPayment> getRentPayments(int tenantId) {
         List<RentPayment> payments = new ArrayList<>();
         String sql = "SELECT * FROM rent_payments WHERE tenant_id = ? ORDER BY payment_date DESC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setInt(1, tenantId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                RentPayment payment = new RentPayment(
-                    rs.getInt("id"),
-                    rs.getInt("tenant_id"),
-                    rs.getDouble("amount"),
-                    rs.getString("payment_method")
-                );
-                payment.setPaymentDate(LocalDate.parse(rs.getString("payment_date")));
-                payment.setNotes(rs.getString("notes"));
-                payments.add(payment);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    payments.add(mapRentPayment(rs));
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -462,19 +879,32 @@ public class DatabaseManager {
         return payments;
     }
 
+    private static RentPayment mapRentPayment(ResultSet rs) throws SQLException {
+        RentPayment payment = new RentPayment(
+            rs.getInt("id"),
+            rs.getInt("tenant_id"),
+            Money.toPounds(rs.getLong("amount")),
+            rs.getString("payment_method")
+        );
+        payment.setPaymentDate(readDate(rs, "payment_date"));
+        payment.setNotes(rs.getString("notes"));
+        return payment;
+    }
+
     // Property photos methods
     public void savePropertyPhoto(String propertyId, String photoPath, String description) {
         String sql = """
-            INSERT INTO property_photos 
+            INSERT INTO property_photos
             (property_id, photo_path, description, upload_date)
             VALUES (?, ?, ?, ?)
         """;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
             pstmt.setString(2, photoPath);
             pstmt.setString(3, description);
-            pstmt.setString(4, LocalDate.now().toString());
+            bindDate(pstmt, 4, LocalDate.now());
             pstmt.executeUpdate();
         } catch (Exception e) {
             e.printStackTrace();
@@ -485,12 +915,13 @@ public class DatabaseManager {
         List<String> photos = new ArrayList<>();
         String sql = "SELECT photo_path FROM property_photos WHERE property_id = ? ORDER BY upload_date DESC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                photos.add(rs.getString("photo_path"));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    photos.add(rs.getString("photo_path"));
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -502,86 +933,116 @@ public class DatabaseManager {
     // Database backup and restore
     public void backupDatabase(String backupPath) {
         try {
-            // Close the current connection to ensure all changes are saved
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-            
-            // Copy the database file
-            java.nio.file.Files.copy(
-                java.nio.file.Paths.get(dbPath),
-                java.nio.file.Paths.get(backupPath),
-                java.nio.file.StandardCopyOption.REPLACE_EXISTING
-            );
-            
-            // Reopen the connection
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+            backupDatabaseOnline(backupPath, false, TaskService.Progress.NONE);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /*
+     * Online backup: copies the live database through SQLite's backup API on its own connection,
+     * so the pool stays open and the UI keeps working. The copy is taken a few pages at a time
+     * with a pause between steps, and sees everything committed so far, including pages still
+     * in the WAL. With compress set, the finished copy is gzipped to backupPath. Blocks, so it is
+     * run as a background task. SQLite cannot stop a backup part way, so once the task is cancelled
+     * the remaining steps run without pausing and the copy is deleted.
+     */
+    public Path backupDatabaseOnline(String backupPath, boolean compress, TaskService.Progress progress)
+            throws SQLException, IOException {
+        Path target = Paths.get(backupPath);
+        Path copyTarget = compress ? target.resolveSibling(target.getFileName() + ".tmp") : target;
+        try (Connection source = DriverManager.getConnection("jdbc:sqlite:" + dbPath)) {
+            DB database = ((SQLiteConnection) source).getDatabase();
+            int result = database.backup("main", copyTarget.toString(), (remaining, pageCount) -> {
+                progress.update(pageCount - remaining, pageCount, (pageCount - remaining) + " of " + pageCount + " pages");
+                if (progress.isCancelled()) {
+                    return;
+                }
+                try {
+                    Thread.sleep(BACKUP_STEP_PAUSE_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, BACKUP_BUSY_SLEEP_MS, BACKUP_BUSY_RETRIES, BACKUP_PAGES_PER_STEP);
+            if (result != SQLiteErrorCode.SQLITE_OK.code) {
+                throw new SQLException("Backup failed with SQLite error " + result);
+            }
+        }
+        if (progress.isCancelled()) {
+            Files.deleteIfExists(copyTarget);
+            throw new CancellationException("Backup cancelled");
+        }
+
+        if (compress) {
+            try (InputStream in = Files.newInputStream(copyTarget);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+                in.transferTo(out);
+            } finally {
+                Files.deleteIfExists(copyTarget);
+            }
+        }
+        return target;
+    }
+
     public void restoreDatabase(String backupPath) {
         try {
-            // Close the current connection
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
+            // Close the current connections; releasing also drops the database's cached details
+            releaseActive();
             
-            // Copy the backup file to the main database
-            java.nio.file.Files.copy(
-                java.nio.file.Paths.get(backupPath),
-                java.nio.file.Paths.get(dbPath),
-                java.nio.file.StandardCopyOption.REPLACE_EXISTING
-            );
+            // Copy the backup file to the main database, unpacking compressed online backups
+            if (backupPath.endsWith(".gz")) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(Paths.get(backupPath)))) {
+                    Files.copy(in, Paths.get(dbPath), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                Files.copy(Paths.get(backupPath), Paths.get(dbPath), StandardCopyOption.REPLACE_EXISTING);
+            }
             
-            // Reopen the connection
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+            // Reopen the connection pool
+            activate(catalog.acquire(dbPath));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     public void saveExpense(PropertyExpense expense) {
-        String sql = """
-            INSERT OR REPLACE INTO property_expenses 
-            (id, property_id, description, amount, expense_date, category, notes)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, expense.getId());
-            pstmt.setString(2, expense.getPropertyId());
-            pstmt.setString(3, expense.getDescription());
-            pstmt.setDouble(4, expense.getAmount());
-            pstmt.setString(5, expense.getDate().toString());
-            pstmt.setString(6, expense.getCategory());
-            pstmt.setString(7, expense.getNotes());
+        try (PooledConnection conn = pool().writer()) {
+            HistoryArchive.rejectArchived(conn, HistoryArchive.EXPENSES, expense.getId());
+            PreparedStatement pstmt = conn.prepare(SAVE_EXPENSE_SQL);
+            bindExpense(pstmt, expense);
             pstmt.executeUpdate();
+            if (expense.getId() <= 0) {
+                expense.setId(lastInsertId(conn));
+            }
+            invalidateExpense(expense);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    private static void bindExpense(PreparedStatement pstmt, PropertyExpense expense) throws SQLException {
+        bindId(pstmt, 1, expense.getId());
+        pstmt.setString(2, expense.getPropertyId());
+        pstmt.setString(3, expense.getDescription());
+        pstmt.setLong(4, Money.toPence(expense.getAmount()));
+        bindDate(pstmt, 5, expense.getDate());
+        pstmt.setString(6, expense.getCategory());
+        pstmt.setString(7, expense.getNotes());
+    }
+
+    // Full history, archived years included, so the list adds up to getTotalExpenses
     public List<PropertyExpense> getPropertyExpenses(String propertyId) {
         List<PropertyExpense> expenses = new ArrayList<>();
-        String sql = "SELECT * FROM property_expenses WHERE property_id = ? ORDER BY expense_date DESC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT * FROM " + HistoryArchive.rangeSource(conn, HistoryArchive.EXPENSES, null, null)
+                + " WHERE property_id = ? ORDER BY expense_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                PropertyExpense expense = new PropertyExpense(
-                    rs.getInt("id"),
-                    rs.getString("property_id"),
-                    rs.getString("description"),
-                    rs.getDouble("amount"),
-                    LocalDate.parse(rs.getString("expense_date")),
-                    rs.getString("category")
-                );
-                expense.setNotes(rs.getString("notes"));
-                expenses.add(expense);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    expenses.add(mapExpense(rs));
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -590,34 +1051,53 @@ public class DatabaseManager {
         return expenses;
     }
 
+    private static PropertyExpense mapExpense(ResultSet rs) throws SQLException {
+        PropertyExpense expense = new PropertyExpense(
+            rs.getInt("id"),
+            rs.getString("property_id"),
+            rs.getString("description"),
+            Money.toPounds(rs.getLong("amount")),
+            readDate(rs, "expense_date"),
+            rs.getString("category")
+        );
+        expense.setNotes(rs.getString("notes"));
+        return expense;
+    }
+
     public void saveRentPaymentDate(String propertyId, LocalDate paymentDate, double amount, String status) {
         String sql = """
-            INSERT INTO rent_payment_dates 
+            INSERT INTO rent_payment_dates
             (property_id, payment_date, amount, status)
             VALUES (?, ?, ?, ?)
         """;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().writer()) {
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            pstmt.setString(2, paymentDate.toString());
-            pstmt.setDouble(3, amount);
+            bindDate(pstmt, 2, paymentDate);
+            pstmt.setLong(3, Money.toPence(amount));
             pstmt.setString(4, status);
             pstmt.executeUpdate();
+            detailsCache.invalidate(propertyId);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    // Full history, archived years included
     public List<LocalDate> getRentPaymentDates(String propertyId) {
         List<LocalDate> dates = new ArrayList<>();
-        String sql = "SELECT payment_date FROM rent_payment_dates WHERE property_id = ? ORDER BY payment_date DESC";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT payment_date FROM "
+                + HistoryArchive.rangeSource(conn, HistoryArchive.RENT_PAYMENT_DATES, null, null)
+                + " WHERE property_id = ? ORDER BY payment_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                dates.add(LocalDate.parse(rs.getString("payment_date")));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    dates.add(readDate(rs, "payment_date"));
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -626,25 +1106,621 @@ public class DatabaseManager {
         return dates;
     }
 
-    public double getTotalExpenses(String propertyId) {
-        String sql = "SELECT SUM(amount) as total FROM property_expenses WHERE property_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    // Every property paid on each date in [from, to], answered from the (payment_date, property_id) index
+    // plus any archived years the range reaches into
+    public Map<LocalDate, List<String>> getRentPaymentsInRange(LocalDate from, LocalDate to) {
+        Map<LocalDate, List<String>> paymentsByDate = new TreeMap<>();
+
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT DISTINCT payment_date, property_id FROM "
+                + HistoryArchive.rangeSource(conn, HistoryArchive.RENT_PAYMENT_DATES, from, to)
+                + " WHERE payment_date BETWEEN ? AND ? ORDER BY payment_date, property_id";
+            PreparedStatement pstmt = conn.prepare(sql);
+            bindDate(pstmt, 1, from);
+            bindDate(pstmt, 2, to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    paymentsByDate.computeIfAbsent(readDate(rs, "payment_date"), date -> new ArrayList<>())
+                        .add(rs.getString("property_id"));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return paymentsByDate;
+    }
+
+    // A property's expenses dated in [from, to], including archived years; either end may be null
+    public List<PropertyExpense> getPropertyExpenses(String propertyId, LocalDate from, LocalDate to) {
+        List<PropertyExpense> expenses = new ArrayList<>();
+
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT * FROM "
+                + HistoryArchive.rangeSource(conn, HistoryArchive.EXPENSES, from, to)
+                + " WHERE property_id = ? AND expense_date BETWEEN ? AND ? ORDER BY expense_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
             pstmt.setString(1, propertyId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble("total");
+            bindRangeBounds(pstmt, 2, from, to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    expenses.add(mapExpense(rs));
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return 0.0;
+
+        return expenses;
     }
 
-    public void closeConnection() {
+    // A tenant's payments dated in [from, to], including archived years; either end may be null
+    public List<RentPayment> getRentPayments(int tenantId, LocalDate from, LocalDate to) {
+        List<RentPayment> payments = new ArrayList<>();
+
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT * FROM "
+                + HistoryArchive.rangeSource(conn, HistoryArchive.RENT_PAYMENTS, from, to)
+                + " WHERE tenant_id = ? AND payment_date BETWEEN ? AND ? ORDER BY payment_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setInt(1, tenantId);
+            bindRangeBounds(pstmt, 2, from, to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    payments.add(mapRentPayment(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return payments;
+    }
+
+    // A property's maintenance requests reported in [from, to], including archived ones; either end may be null
+    public List<MaintenanceRequest> getMaintenanceRequests(String propertyId, LocalDate from, LocalDate to) {
+        List<MaintenanceRequest> requests = new ArrayList<>();
+
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT * FROM "
+                + HistoryArchive.rangeSource(conn, HistoryArchive.MAINTENANCE, from, to)
+                + " WHERE property_id = ? AND reported_date BETWEEN ? AND ? ORDER BY reported_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, propertyId);
+            bindRangeBounds(pstmt, 2, from, to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    requests.add(mapMaintenanceRequest(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return requests;
+    }
+
+    private static void bindRangeBounds(PreparedStatement pstmt, int index, LocalDate from, LocalDate to)
+            throws SQLException {
+        pstmt.setLong(index, from != null ? from.toEpochDay() : Long.MIN_VALUE);
+        pstmt.setLong(index + 1, to != null ? to.toEpochDay() : Long.MAX_VALUE);
+    }
+
+    /*
+     * Moves payments and expenses dated before firstOpenYear, and completed or cancelled maintenance
+     * closed before maintenanceCutoff (null to keep all maintenance), into yearly archive tables.
+     * Everything moves in one transaction. Returns the rows moved per table, or an empty map if
+     * nothing could be archived. Archived rows can no longer be saved.
+     */
+    public Map<String, Integer> archiveHistory(int firstOpenYear, LocalDate maintenanceCutoff) {
+        try (PooledConnection conn = pool().writer()) {
+            Connection connection = conn.connection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                Map<String, Integer> moved = HistoryArchive.archive(connection, firstOpenYear, maintenanceCutoff);
+                connection.commit();
+                detailsCache.invalidateAll();
+                return moved;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Collections.emptyMap();
+    }
+
+    public List<HistoryArchive.Partition> getArchivePartitions() {
+        try (PooledConnection conn = pool().reader()) {
+            return HistoryArchive.partitions(conn.connection());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Collections.emptyList();
+    }
+
+    public Money getTotalExpenses(String propertyId) {
+        String sql = """
+            SELECT COALESCE((SELECT SUM(amount) FROM property_expenses WHERE property_id = ?), 0)
+                 + COALESCE((SELECT SUM(total) FROM archive_totals WHERE kind = 'EXPENSE' AND property_id = ?), 0) AS total
+        """;
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, propertyId);
+            pstmt.setString(2, propertyId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Money.ofPence(rs.getLong("total"));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Money.ZERO;
+    }
+
+    // Served from the details cache when possible; writes below invalidate exactly the properties they touch
+    public PropertyDetails getPropertyDetails(String propertyId) {
+        PropertyDetails cached = detailsCache.get(propertyId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = detailsCache.generation();
+        PropertyDetails details = new PropertyDetails(
+            propertyId,
+            getRentPaymentDates(propertyId),
+            getPropertyExpenses(propertyId),
+            getTotalExpenses(propertyId),
+            getTenantsForProperty(propertyId),
+            getRentPaymentsForProperty(propertyId),
+            getMaintenanceRequests(propertyId)
+        );
+        detailsCache.put(details, generation);
+        return details;
+    }
+
+    // Rent payments of every tenant of the property, newest first, archived years included
+    public List<RentPayment> getRentPaymentsForProperty(String propertyId) {
+        List<RentPayment> payments = new ArrayList<>();
+
+        try (PooledConnection conn = pool().reader()) {
+            String sql = "SELECT rp.* FROM " + HistoryArchive.rangeSource(conn, HistoryArchive.RENT_PAYMENTS, null, null)
+                + " rp JOIN tenants t ON t.id = rp.tenant_id WHERE t.property_id = ? ORDER BY rp.payment_date DESC";
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, propertyId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    payments.add(mapRentPayment(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return payments;
+    }
+
+    // A saved child may have moved between properties, so entries still holding it are dropped as well
+    private void invalidateTenant(Tenant tenant) {
+        detailsCache.invalidate(tenant.getPropertyId());
+        detailsCache.invalidateIf(details -> details.containsTenant(tenant.getId()));
+    }
+
+    private void invalidateRentPayment(RentPayment payment) {
+        detailsCache.invalidateIf(details -> details.containsTenant(payment.getTenantId()));
+    }
+
+    private void invalidateExpense(PropertyExpense expense) {
+        detailsCache.invalidate(expense.getPropertyId());
+        detailsCache.invalidateIf(details -> details.containsExpense(expense.getId()));
+    }
+
+    private void invalidateMaintenanceRequest(MaintenanceRequest request) {
+        detailsCache.invalidate(request.getPropertyId());
+        detailsCache.invalidateIf(details -> details.containsMaintenanceRequest(request.getId()));
+    }
+
+    public PropertyDetailsCache getDetailsCache() {
+        return detailsCache;
+    }
+
+    /*
+     * Streaming cursors: rows are mapped and handed over one at a time while the reader
+     * lease is held, so exports never materialise the whole table.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+        DatabaseCatalog.Entry current = active;
+        if (current != null) {
+            current.settings().setFetchSize(fetchSize);
+        }
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void streamProperties(Consumer<PropertyApp.Property> consumer) {
+        streamRows("SELECT * FROM properties ORDER BY display_order, property_id",
+            DatabaseManager::mapProperty, consumer);
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private <T> void streamRows(String sql, RowMapper<T> mapper, Consumer<T> consumer) {
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapper.map(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*
+     * Ranked full-text search across properties, tenants, expenses and maintenance requests.
+     * Every word of the query is matched as a prefix, so "jo sm" finds "John Smith". Results are
+     * grouped by entity type in SearchResult.ENTITY_TYPES order, best match first, with at most
+     * limit results per type; types with no matches are left out.
+     */
+    public Map<String, List<SearchResult>> search(String query, int limit) {
+        Map<String, List<SearchResult>> grouped = new LinkedHashMap<>();
+        String match = toMatchQuery(query);
+        if (match.isEmpty() || limit <= 0) {
+            return grouped;
+        }
+        for (String type : SearchResult.ENTITY_TYPES) {
+            grouped.put(type, new ArrayList<>());
+        }
+
+        // Titles (address, tenant name, descriptions) outweigh the body text in the ranking
+        String sql = """
+            WITH hits AS (
+                SELECT d.entity_type, d.entity_id, d.property_id, d.title,
+                       snippet(search_index, -1, '', '', '…', 10) AS snippet,
+                       bm25(search_index, 4.0, 1.0) AS rank
+                FROM search_index JOIN search_documents d ON d.doc_id = search_index.rowid
+                WHERE search_index MATCH ?
+            )
+            SELECT entity_type, entity_id, property_id, title, snippet, rank
+            FROM (SELECT *, ROW_NUMBER() OVER (PARTITION BY entity_type ORDER BY rank) AS n FROM hits)
+            WHERE n <= ?
+            ORDER BY rank
+        """;
+        try (PooledConnection conn = pool().reader()) {
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    SearchResult result = new SearchResult(
+                        rs.getString("entity_type"),
+                        rs.getString("entity_id"),
+                        rs.getString("property_id"),
+                        rs.getString("title"),
+                        rs.getString("snippet"),
+                        rs.getDouble("rank")
+                    );
+                    grouped.computeIfAbsent(result.entityType(), type -> new ArrayList<>()).add(result);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        grouped.values().removeIf(List::isEmpty);
+        return grouped;
+    }
+
+    // Quotes each word and makes it a prefix term, so user input can never be parsed as FTS5 syntax
+    static String toMatchQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add("\"" + word + "\"*");
+            }
+        }
+        return String.join(" ", terms);
+    }
+
+    // Portfolio rollups: expenses, rent and maintenance for every property from one grouped query.
+    // Archived history comes from archive_totals, so the partitions themselves are never read here.
+    public Map<String, PropertyRollup> getPortfolioRollups() {
+        String sql = """
+            SELECT 'EXPENSE' AS kind, property_id, category AS bucket, SUM(amount) AS total, COUNT(*) AS n
+            FROM property_expenses GROUP BY property_id, category
+            UNION ALL
+            SELECT 'RENT', property_id, strftime('%Y-%m', payment_date * 86400, 'unixepoch') AS month, SUM(amount), COUNT(*)
+            FROM rent_payment_dates WHERE status = 'PAID' GROUP BY property_id, month
+            UNION ALL
+            SELECT 'MAINTENANCE', property_id, NULL, SUM(cost),
+                   SUM(CASE WHEN status IN ('COMPLETED', 'CANCELLED') THEN 0 ELSE 1 END)
+            FROM maintenance_requests GROUP BY property_id
+            UNION ALL
+            SELECT kind, property_id, NULLIF(bucket, ''), total, 0 FROM archive_totals
+        """;
+        Map<String, RollupBuilder> builders = new HashMap<>();
+
+        try (PooledConnection conn = pool().reader();
+             ResultSet rs = conn.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                String propertyId = rs.getString("property_id");
+                if (propertyId == null) {
+                    continue;
+                }
+                RollupBuilder builder = builders.computeIfAbsent(propertyId, RollupBuilder::new);
+                long total = rs.getLong("total");
+                switch (rs.getString("kind")) {
+                    case "EXPENSE":
+                        String category = rs.getString("bucket");
+                        builder.totalExpenses += total;
+                        builder.expensesByCategory.merge(category != null ? category : "OTHER", total, Long::sum);
+                        break;
+                    case "RENT":
+                        builder.rentByMonth.merge(YearMonth.parse(rs.getString("bucket")), total, Long::sum);
+                        break;
+                    case "MAINTENANCE":
+                        builder.maintenanceCost += total;
+                        builder.openMaintenanceCount += rs.getInt("n");
+                        break;
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        Map<String, PropertyRollup> rollups = new HashMap<>();
+        builders.forEach((propertyId, builder) -> rollups.put(propertyId, builder.build()));
+        return rollups;
+    }
+
+    private static class RollupBuilder {
+        private final String propertyId;
+        private long totalExpenses;
+        private final Map<String, Long> expensesByCategory = new TreeMap<>();
+        private final Map<YearMonth, Long> rentByMonth = new TreeMap<>();
+        private int openMaintenanceCount;
+        private long maintenanceCost;
+
+        RollupBuilder(String propertyId) {
+            this.propertyId = propertyId;
+        }
+
+        PropertyRollup build() {
+            return new PropertyRollup(propertyId, Money.ofPence(totalExpenses), toMoney(expensesByCategory),
+                toMoney(rentByMonth), openMaintenanceCount, Money.ofPence(maintenanceCost));
+        }
+
+        private static <K> Map<K, Money> toMoney(Map<K, Long> pence) {
+            Map<K, Money> amounts = new TreeMap<>();
+            pence.forEach((key, value) -> amounts.put(key, Money.ofPence(value)));
+            return Collections.unmodifiableMap(amounts);
+        }
+    }
+
+    // Batch writes: one transaction per call, flushed to SQLite in chunks of batchChunkSize rows
+    public void setBatchChunkSize(int batchChunkSize) {
+        this.batchChunkSize = Math.max(1, batchChunkSize);
+        DatabaseCatalog.Entry current = active;
+        if (current != null) {
+            current.settings().setBatchChunkSize(batchChunkSize);
+        }
+    }
+
+    public int getBatchChunkSize() {
+        return batchChunkSize;
+    }
+
+    public BatchResult<PropertyApp.Property> saveProperties(List<PropertyApp.Property> properties) {
+        return saveBatch(SAVE_PROPERTY_SQL, properties, (pstmt, property) -> {
+            if (property.getPropertyId().isEmpty()) {
+                throw new SQLException("Property has no ID");
+            }
+            bindProperty(pstmt, property);
+        }, null);
+    }
+
+    public BatchResult<Tenant> saveTenants(List<Tenant> tenants) {
+        BatchResult<Tenant> result = saveBatch(SAVE_TENANT_SQL, tenants, DatabaseManager::bindTenant,
+            new GeneratedKey<>(Tenant::getId, Tenant::setId, null));
+        tenants.forEach(this::invalidateTenant);
+        return result;
+    }
+
+    public BatchResult<RentPayment> saveRentPayments(List<RentPayment> payments) {
+        BatchResult<RentPayment> result = saveBatch(SAVE_RENT_PAYMENT_SQL, payments, DatabaseManager::bindRentPayment,
+            new GeneratedKey<>(RentPayment::getId, RentPayment::setId, HistoryArchive.RENT_PAYMENTS));
+        payments.forEach(this::invalidateRentPayment);
+        return result;
+    }
+
+    public BatchResult<PropertyExpense> saveExpenses(List<PropertyExpense> expenses) {
+        BatchResult<PropertyExpense> result = saveBatch(SAVE_EXPENSE_SQL, expenses, DatabaseManager::bindExpense,
+            new GeneratedKey<>(PropertyExpense::getId, PropertyExpense::setId, HistoryArchive.EXPENSES));
+        expenses.forEach(this::invalidateExpense);
+        return result;
+    }
+
+    public BatchResult<MaintenanceRequest> saveMaintenanceRequests(List<MaintenanceRequest> requests) {
+        BatchResult<MaintenanceRequest> result = saveBatch(SAVE_MAINTENANCE_SQL, requests,
+            DatabaseManager::bindMaintenanceRequest,
+            new GeneratedKey<>(MaintenanceRequest::getId, MaintenanceRequest::setId, HistoryArchive.MAINTENANCE));
+        requests.forEach(this::invalidateMaintenanceRequest);
+        return result;
+    }
+
+    // key is null for tables keyed by the caller; otherwise new rows get their generated keys written back
+    private <T> BatchResult<T> saveBatch(String sql, List<T> items, Binder<T> binder, GeneratedKey<T> key) {
+        BatchResult<T> result = new BatchResult<>(items.size());
+        if (items.isEmpty()) {
+            return result;
+        }
+        List<T> keyed = new ArrayList<>();
+
+        try (PooledConnection conn = pool().writer()) {
+            Connection connection = conn.connection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement pstmt = conn.prepare(sql);
+                // Partitions are read once for the whole batch
+                HistoryArchive.ArchivedIds archived = key != null && key.archive() != null
+                    ? HistoryArchive.archivedIds(conn, key.archive()) : HistoryArchive.ArchivedIds.NONE;
+                for (int start = 0; start < items.size(); start += batchChunkSize) {
+                    int end = Math.min(start + batchChunkSize, items.size());
+                    saveChunk(conn, pstmt, items, start, end, binder, key, archived, keyed, result);
+                }
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                // The rolled back rows were never stored, so they must insert again next time
+                keyed.forEach(item -> key.set().accept(item, 0));
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            // Nothing was committed, so every row counts as failed
+            BatchResult<T> failed = new BatchResult<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                failed.addFailure(i, items.get(i), e.getMessage());
+            }
+            return failed;
+        }
+        return result;
+    }
+
+    /*
+     * Rows that already have a key go through executeBatch. New rows are inserted one at a time
+     * after it, because the driver only reports the last generated key of a batch; each one's key
+     * is read back with last_insert_rowid() as the single-row saves do.
+     */
+    private <T> void saveChunk(PooledConnection conn, PreparedStatement pstmt, List<T> items, int start, int end,
+                               Binder<T> binder, GeneratedKey<T> key, HistoryArchive.ArchivedIds archived,
+                               List<T> keyed, BatchResult<T> result) throws SQLException {
+        Connection connection = conn.connection();
+        List<Integer> batched = new ArrayList<>();
+        List<Integer> inserts = new ArrayList<>();
+        int keyedBefore = keyed.size();
+        Savepoint savepoint = connection.setSavepoint();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            for (int i = start; i < end; i++) {
+                try {
+                    if (key != null) {
+                        archived.reject(conn, key.get().applyAsInt(items.get(i)));
+                    }
+                    binder.bind(pstmt, items.get(i));
+                    if (key != null && key.get().applyAsInt(items.get(i)) <= 0) {
+                        inserts.add(i);
+                    } else {
+                        pstmt.addBatch();
+                        batched.add(i);
+                    }
+                } catch (Exception e) {
+                    result.addFailure(i, items.get(i), e.getMessage());
+                }
+            }
+            pstmt.executeBatch();
+            for (int i : inserts) {
+                insertRow(conn, pstmt, items.get(i), binder, key, keyed);
+            }
+            result.addSaved(batched.size() + inserts.size());
+        } catch (SQLException e) {
+            // Undo the chunk and replay it row by row so one bad row does not sink its neighbours
+            pstmt.clearBatch();
+            connection.rollback(savepoint);
+            for (T item : keyed.subList(keyedBefore, keyed.size())) {
+                key.set().accept(item, 0);
             }
+            keyed.subList(keyedBefore, keyed.size()).clear();
+
+            List<Integer> replay = new ArrayList<>(batched);
+            replay.addAll(inserts);
+            Collections.sort(replay);
+            for (int i : replay) {
+                try {
+                    if (inserts.contains(i)) {
+                        insertRow(conn, pstmt, items.get(i), binder, key, keyed);
+                    } else {
+                        binder.bind(pstmt, items.get(i));
+                        pstmt.executeUpdate();
+                    }
+                    result.addSaved(1);
+                } catch (SQLException rowError) {
+                    result.addFailure(i, items.get(i), rowError.getMessage());
+                }
+            }
+        }
+        connection.releaseSavepoint(savepoint);
+    }
+
+    private static <T> void insertRow(PooledConnection conn, PreparedStatement pstmt, T item, Binder<T> binder,
+                                      GeneratedKey<T> key, List<T> keyed) throws SQLException {
+        binder.bind(pstmt, item);
+        pstmt.executeUpdate();
+        key.set().accept(item, lastInsertId(conn));
+        keyed.add(item);
+    }
+
+    private static int lastInsertId(PooledConnection conn) throws SQLException {
+        try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Dates are stored as INTEGER days since the epoch, so rows decode without parsing and ranges compare as integers
+    private static void bindDate(PreparedStatement pstmt, int index, LocalDate date) throws SQLException {
+        if (date != null) {
+            pstmt.setLong(index, date.toEpochDay());
+        } else {
+            pstmt.setNull(index, java.sql.Types.INTEGER);
+        }
+    }
+
+    private static LocalDate readDate(ResultSet rs, String column) throws SQLException {
+        long epochDay = rs.getLong(column);
+        return rs.wasNull() ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    // A non-positive ID marks a new row, so let SQLite assign the key instead of overwriting row 0
+    private static void bindId(PreparedStatement pstmt, int index, int id) throws SQLException {
+        if (id > 0) {
+            pstmt.setInt(index, id);
+        } else {
+            pstmt.setNull(index, java.sql.Types.INTEGER);
+        }
+    }
+
+    // Statement cache statistics for the currently open database
+    public long getStatementCacheHits() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStatementCacheHits() : 0;
+    }
+
+    public long getStatementCacheMisses() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStatementCacheMisses() : 0;
+    }
+
+    public void closeConnection() {
+        try {
+            catalog.close();
+            pool = null;
         } catch (Exception e) {
             e.printStackTrace();
         }
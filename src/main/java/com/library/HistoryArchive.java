@@ -0,0 +1,262 @@
+package com.library;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Moves closed history out of the hot tables into one archive table per source table and year
+ * (archive_property_expenses_2021, ...), registered in archive_partitions. Partitions are created
+ * from the source table's own definition, so they keep its foreign keys and cascade with their
+ * property or tenant. Archived amounts are also folded into archive_totals, which lets the
+ * portfolio rollups keep reporting full history without reading the partitions.
+ */
+public class HistoryArchive {
+
+    // A partition holds the rows whose date expression falls in its year
+    record Source(String table, String dateExpression, String filter, String columns, String indexColumns,
+                  String totalsSelect) {
+    }
+
+    public record Partition(String sourceTable, int year, String tableName, long rowCount) {
+    }
+
+    static final Source RENT_PAYMENTS = new Source("rent_payments", "payment_date", null,
+        "id, tenant_id, amount, payment_date, payment_method, notes", "tenant_id, payment_date", null);
+    static final Source RENT_PAYMENT_DATES = new Source("rent_payment_dates", "payment_date", null,
+        "id, property_id, payment_date, amount, status, notes", "property_id, payment_date",
+        "SELECT 'RENT', property_id, strftime('%Y-%m', payment_date * 86400, 'unixepoch'), SUM(amount), COUNT(*)"
+            + " FROM rent_payment_dates WHERE status = 'PAID' AND property_id IS NOT NULL AND {where} GROUP BY 2, 3");
+    static final Source EXPENSES = new Source("property_expenses", "expense_date", null,
+        "id, property_id, description, amount, expense_date, category, notes", "property_id, expense_date",
+        "SELECT 'EXPENSE', property_id, COALESCE(category, ''), SUM(amount), COUNT(*)"
+            + " FROM property_expenses WHERE property_id IS NOT NULL AND {where} GROUP BY 2, 3");
+    // Open requests are never archived, however old they are
+    static final Source MAINTENANCE = new Source("maintenance_requests", "COALESCE(completed_date, reported_date)",
+        "status IN ('COMPLETED', 'CANCELLED')",
+        "id, property_id, description, status, priority, reported_date, completed_date, cost, notes",
+        "property_id, reported_date",
+        "SELECT 'MAINTENANCE', property_id, '', SUM(cost), COUNT(*)"
+            + " FROM maintenance_requests WHERE property_id IS NOT NULL AND {where} GROUP BY 2");
+
+    static final List<Source> SOURCES = List.of(RENT_PAYMENTS, RENT_PAYMENT_DATES, EXPENSES, MAINTENANCE);
+
+    private HistoryArchive() {
+    }
+
+    /*
+     * Archives every payment and expense dated before firstOpenYear, and completed or cancelled
+     * maintenance closed before maintenanceCutoff; a null cutoff leaves maintenance where it is.
+     * Runs on the caller's connection and transaction; returns the number of rows moved per source table.
+     */
+    static Map<String, Integer> archive(Connection connection, int firstOpenYear, LocalDate maintenanceCutoff)
+            throws SQLException {
+        Map<String, Integer> moved = new LinkedHashMap<>();
+        long yearCutoff = LocalDate.of(firstOpenYear, 1, 1).toEpochDay();
+        for (Source source : SOURCES) {
+            if (source == MAINTENANCE && maintenanceCutoff == null) {
+                continue;
+            }
+            long cutoff = source == MAINTENANCE ? maintenanceCutoff.toEpochDay() : yearCutoff;
+            int count = 0;
+            for (int year : yearsBefore(connection, source, cutoff)) {
+                long from = LocalDate.of(year, 1, 1).toEpochDay();
+                long to = Math.min(cutoff, LocalDate.of(year + 1, 1, 1).toEpochDay());
+                count += archiveRange(connection, source, year, from, to);
+            }
+            moved.put(source.table(), count);
+        }
+        return moved;
+    }
+
+    private static List<Integer> yearsBefore(Connection connection, Source source, long cutoff) throws SQLException {
+        List<Integer> years = new ArrayList<>();
+        String sql = "SELECT DISTINCT CAST(strftime('%Y', " + source.dateExpression() + " * 86400, 'unixepoch') AS INTEGER)"
+            + " FROM " + source.table() + " WHERE " + source.dateExpression() + " < " + cutoff
+            + (source.filter() != null ? " AND " + source.filter() : "") + " ORDER BY 1";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                years.add(rs.getInt(1));
+            }
+        }
+        return years;
+    }
+
+    private static int archiveRange(Connection connection, Source source, int year, long from, long to)
+            throws SQLException {
+        String partition = ensurePartition(connection, source, year);
+        String where = source.dateExpression() + " >= " + from + " AND " + source.dateExpression() + " < " + to
+            + (source.filter() != null ? " AND " + source.filter() : "");
+
+        try (Statement stmt = connection.createStatement()) {
+            if (source.totalsSelect() != null) {
+                stmt.execute("INSERT INTO archive_totals (kind, property_id, bucket, total, row_count) "
+                    + source.totalsSelect().replace("{where}", where)
+                    + " ON CONFLICT (kind, property_id, bucket) DO UPDATE SET"
+                    + " total = total + excluded.total, row_count = row_count + excluded.row_count");
+            }
+            int moved = stmt.executeUpdate("INSERT INTO " + partition + " (" + source.columns() + ") SELECT "
+                + source.columns() + " FROM " + source.table() + " WHERE " + where);
+            stmt.executeUpdate("DELETE FROM " + source.table() + " WHERE " + where);
+
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "UPDATE archive_partitions SET row_count = row_count + ? WHERE source_table = ? AND year = ?")) {
+                pstmt.setInt(1, moved);
+                pstmt.setString(2, source.table());
+                pstmt.setInt(3, year);
+                pstmt.executeUpdate();
+            }
+            return moved;
+        }
+    }
+
+    // Creates the year's table from the source's current definition the first time the year is archived
+    private static String ensurePartition(Connection connection, Source source, int year) throws SQLException {
+        String partition = "archive_" + source.table() + "_" + year;
+        String createSql;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, source.table());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No table " + source.table() + " to archive");
+                }
+                createSql = rs.getString(1);
+            }
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(createSql.replaceFirst("^CREATE TABLE\\s+\"?" + source.table() + "\"?",
+                "CREATE TABLE IF NOT EXISTS " + partition));
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_" + partition + " ON " + partition
+                + "(" + source.indexColumns() + ")");
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO archive_partitions (source_table, year, table_name, row_count) VALUES (?, ?, ?, 0)")) {
+            pstmt.setString(1, source.table());
+            pstmt.setInt(2, year);
+            pstmt.setString(3, partition);
+            pstmt.executeUpdate();
+        }
+        return partition;
+    }
+
+    /*
+     * Archived rows are closed: saving one again through the hot table's INSERT OR REPLACE would
+     * bring it back next to its archived copy and count it twice in the rollups. Ids are never
+     * reused (AUTOINCREMENT), so an id found in a partition is always that archived row. A save
+     * reads the source's partitions once; ids above the highest archived id, which covers every
+     * row added since the last archive run, are passed without probing the partitions.
+     */
+    static class ArchivedIds {
+        static final ArchivedIds NONE = new ArchivedIds(null, null, 0);
+
+        private final Source source;
+        private final String probeSql;
+        private final long maxId;
+
+        private ArchivedIds(Source source, String probeSql, long maxId) {
+            this.source = source;
+            this.probeSql = probeSql;
+            this.maxId = maxId;
+        }
+
+        void reject(PooledConnection conn, long id) throws SQLException {
+            if (id <= 0 || id > maxId) {
+                return;
+            }
+            PreparedStatement pstmt = conn.prepare(probeSql);
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    throw new SQLException(source.table() + " row " + id + " is archived and can no longer be edited");
+                }
+            }
+        }
+    }
+
+    static ArchivedIds archivedIds(PooledConnection conn, Source source) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        PreparedStatement pstmt = conn.prepare("SELECT table_name FROM archive_partitions WHERE source_table = ? ORDER BY year");
+        pstmt.setString(1, source.table());
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        if (tables.isEmpty()) {
+            return ArchivedIds.NONE;
+        }
+
+        StringBuilder ids = new StringBuilder();
+        StringBuilder maxIds = new StringBuilder();
+        for (String table : tables) {
+            if (ids.length() > 0) {
+                ids.append(" UNION ALL ");
+                maxIds.append(" UNION ALL ");
+            }
+            ids.append("SELECT id FROM ").append(table);
+            maxIds.append("SELECT MAX(id) AS id FROM ").append(table);
+        }
+        long maxId;
+        try (ResultSet rs = conn.prepare("SELECT MAX(id) FROM (" + maxIds + ")").executeQuery()) {
+            maxId = rs.next() ? rs.getLong(1) : 0;
+        }
+        return new ArchivedIds(source, "SELECT 1 FROM (" + ids + ") WHERE id = ?", maxId);
+    }
+
+    static void rejectArchived(PooledConnection conn, Source source, long id) throws SQLException {
+        if (id > 0) {
+            archivedIds(conn, source).reject(conn, id);
+        }
+    }
+
+    static List<Partition> partitions(Connection connection) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        String sql = "SELECT source_table, year, table_name, row_count FROM archive_partitions ORDER BY source_table, year";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                partitions.add(new Partition(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getLong(4)));
+            }
+        }
+        return partitions;
+    }
+
+    /*
+     * The FROM source for a query over [from, to] (either end may be null for open-ended): the hot
+     * table alone when no archived year can overlap the range, otherwise a UNION ALL of the hot
+     * table and just the overlapping partitions.
+     */
+    static String rangeSource(PooledConnection conn, Source source, LocalDate from, LocalDate to) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        String sql = "SELECT table_name FROM archive_partitions WHERE source_table = ? AND year >= ? AND year <= ? ORDER BY year";
+        PreparedStatement pstmt = conn.prepare(sql);
+        pstmt.setString(1, source.table());
+        pstmt.setInt(2, from != null ? from.getYear() : Integer.MIN_VALUE);
+        // Maintenance is partitioned by closing date, which can fall in any year after the date queried on
+        pstmt.setInt(3, to != null && source != MAINTENANCE ? to.getYear() : Integer.MAX_VALUE);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        if (tables.isEmpty()) {
+            return source.table();
+        }
+
+        StringBuilder union = new StringBuilder("(SELECT ").append(source.columns()).append(" FROM ").append(source.table());
+        for (String table : tables) {
+            union.append(" UNION ALL SELECT ").append(source.columns()).append(" FROM ").append(table);
+        }
+        return union.append(")").toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.library;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+ * An exact amount of money held as a whole number of pence. Amounts are stored in the database
+ * as INTEGER minor units, so totals are plain long additions that never drift. The static
+ * helpers work on raw pence for hot loops that should not allocate.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long pence;
+
+    private Money(long pence) {
+        this.pence = pence;
+    }
+
+    public static Money ofPence(long pence) {
+        return pence == 0 ? ZERO : new Money(pence);
+    }
+
+    public static Money ofPounds(double pounds) {
+        return ofPence(toPence(pounds));
+    }
+
+    // Rounds half-up on the decimal value the user typed, so 1.005 becomes 101 pence rather than 100
+    public static long toPence(double pounds) {
+        return BigDecimal.valueOf(pounds).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static double toPounds(long pence) {
+        return pence / 100.0;
+    }
+
+    public static String format(long pence) {
+        long abs = Math.abs(pence);
+        return (pence < 0 ? "-£" : "£") + (abs / 100) + "." + (abs % 100 < 10 ? "0" : "") + (abs % 100);
+    }
+
+    public long pence() {
+        return pence;
+    }
+
+    public double toPounds() {
+        return toPounds(pence);
+    }
+
+    public Money plus(Money other) {
+        return ofPence(Math.addExact(pence, other.pence));
+    }
+
+    public Money minus(Money other) {
+        return ofPence(Math.subtractExact(pence, other.pence));
+    }
+
+    public boolean isZero() {
+        return pence == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(pence, other.pence);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).pence == pence;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(pence);
+    }
+
+    @Override
+    public String toString() {
+        return format(pence);
+    }
+}
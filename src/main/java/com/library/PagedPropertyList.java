@@ -0,0 +1,233 @@
+package com.library;
+
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ObservableListBase;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * A read-through view of the properties table for portfolios too large to load at login. The list
+ * reports the full row count but only holds the last MAX_PAGES pages the table asked for; any
+ * other row is a shared placeholder until its page arrives from a background keyset query. Pages
+ * continue from the key their predecessor ended on, and a page reached by jumping ahead is found
+ * through DatabaseManager.findPageAnchor. The count and the portfolio totals come from one
+ * aggregate query. New, not yet saved properties are pinned above the paged rows.
+ * Must be used on the FX thread.
+ */
+public class PagedPropertyList extends ObservableListBase<PropertyApp.Property> {
+    static final int PAGE_SIZE = 200;
+    static final int MAX_PAGES = 10;
+
+    private final AsyncDatabaseManager asyncDb;
+    private final PropertyApp.Property placeholder = new PropertyApp.Property("", "", "Loading...", 0, 0, "");
+    private final List<PropertyApp.Property> pinned = new ArrayList<>();
+    private final Map<Integer, List<PropertyApp.Property>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    // Where each fetched page ended, so the page after it can be read with an index seek
+    private final Map<Integer, DatabaseManager.PageKey> pageEnds = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private final ReadOnlyObjectWrapper<DatabaseManager.PortfolioAggregates> aggregates =
+        new ReadOnlyObjectWrapper<>(new DatabaseManager.PortfolioAggregates(0, 0, 0, 0, 0));
+    // Matches the sort combo box's initial "Sort by ID"
+    private DatabaseManager.PropertySort sort = DatabaseManager.PropertySort.PROPERTY_ID;
+    private int rowCount;
+    // Bumped on every reset so pages still in flight for an old order or count are dropped
+    private long generation;
+    // Set once a short page has forced a reload, so a page that stays short cannot reload forever
+    private boolean reloadedForShortPage;
+
+    public PagedPropertyList(AsyncDatabaseManager asyncDb) {
+        this.asyncDb = asyncDb;
+        reset();
+    }
+
+    @Override
+    public PropertyApp.Property get(int index) {
+        if (index < pinned.size()) {
+            return pinned.get(index);
+        }
+        int row = index - pinned.size();
+        List<PropertyApp.Property> rows = pages.get(row / PAGE_SIZE);
+        if (rows == null) {
+            requestPage(row / PAGE_SIZE);
+            return placeholder;
+        }
+        return row % PAGE_SIZE < rows.size() ? rows.get(row % PAGE_SIZE) : placeholder;
+    }
+
+    @Override
+    public int size() {
+        return pinned.size() + rowCount;
+    }
+
+    public boolean isPlaceholder(PropertyApp.Property property) {
+        return property == placeholder;
+    }
+
+    public DatabaseManager.PropertySort getSort() {
+        return sort;
+    }
+
+    public void setSort(DatabaseManager.PropertySort sort) {
+        if (this.sort != sort) {
+            this.sort = sort;
+            reset();
+        }
+    }
+
+    // Shows a new property above the paged rows until it has an ID and the list is next reset
+    public void addPinned(PropertyApp.Property property) {
+        pinned.add(0, property);
+        beginChange();
+        nextAdd(0, 1);
+        endChange();
+    }
+
+    public void removePinned(PropertyApp.Property property) {
+        int index = pinned.indexOf(property);
+        if (index >= 0) {
+            pinned.remove(index);
+            beginChange();
+            nextRemove(index, property);
+            endChange();
+        }
+    }
+
+    // Tells the table a row was edited in place; its position is only re-sorted on the next reset
+    public void refresh(int index) {
+        beginChange();
+        nextUpdate(index);
+        endChange();
+    }
+
+    // Re-publishes a property edited outside the table, if it is pinned or in a loaded page
+    public void refresh(PropertyApp.Property property) {
+        int index = pinned.indexOf(property);
+        if (index < 0) {
+            for (Map.Entry<Integer, List<PropertyApp.Property>> page : pages.entrySet()) {
+                int offset = page.getValue().indexOf(property);
+                if (offset >= 0) {
+                    index = pinned.size() + page.getKey() * PAGE_SIZE + offset;
+                    break;
+                }
+            }
+        }
+        if (index >= 0) {
+            refresh(index);
+        }
+    }
+
+    /*
+     * Drops every cached page and re-reads the count and totals, e.g. after a delete or a change of
+     * order. Pinned properties that were given an ID have been saved and now come back in their page.
+     */
+    public void reset() {
+        reloadedForShortPage = false;
+        reload();
+    }
+
+    private void reload() {
+        generation++;
+        long resetGeneration = generation;
+        pages.clear();
+        pageEnds.clear();
+        loading.clear();
+        asyncDb.read(DatabaseManager::getPortfolioAggregates).thenAccept(result -> {
+            if (resetGeneration != generation) {
+                return;
+            }
+            int oldSize = size();
+            pinned.removeIf(property -> !property.getPropertyId().isEmpty());
+            rowCount = result.count();
+            aggregates.set(result);
+            beginChange();
+            if (oldSize > 0) {
+                nextRemove(0, Collections.nCopies(oldSize, placeholder));
+            }
+            if (size() > 0) {
+                nextAdd(0, size());
+            }
+            endChange();
+        });
+    }
+
+    // Re-reads the totals after saves; a changed row count means rows were added or removed elsewhere
+    public void refreshTotals() {
+        long requestGeneration = generation;
+        asyncDb.read(DatabaseManager::getPortfolioAggregates).thenAccept(result -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            if (result.count() != rowCount) {
+                reset();
+            } else {
+                aggregates.set(result);
+            }
+        });
+    }
+
+    public ReadOnlyObjectProperty<DatabaseManager.PortfolioAggregates> aggregatesProperty() {
+        return aggregates.getReadOnlyProperty();
+    }
+
+    private void requestPage(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        long requestGeneration = generation;
+        DatabaseManager.PropertySort pageSort = sort;
+        DatabaseManager.PageKey after = page == 0 ? null : pageEnds.get(page - 1);
+        boolean anchored = page == 0 || after != null;
+
+        asyncDb.read(db -> {
+                DatabaseManager.PageKey from = anchored ? after : db.findPageAnchor(pageSort, page * PAGE_SIZE);
+                // No anchor means the page starts past the end, e.g. after deletes since the count was read
+                return from == null && page > 0
+                    ? new DatabaseManager.PropertyPage(List.of(), null)
+                    : db.loadPropertyPage(pageSort, from, PAGE_SIZE);
+            })
+            .whenComplete((result, error) -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading.remove(page);
+                if (error == null) {
+                    store(page, result);
+                }
+            });
+    }
+
+    private void store(int page, DatabaseManager.PropertyPage result) {
+        pages.put(page, result.rows());
+        if (result.last() != null) {
+            pageEnds.put(page, result.last());
+        }
+        // Least recently shown pages go first; the table asks for them again if they scroll back in
+        Iterator<Integer> eldest = pages.keySet().iterator();
+        while (pages.size() > MAX_PAGES && eldest.hasNext()) {
+            if (eldest.next() != page) {
+                eldest.remove();
+            }
+        }
+
+        int from = pinned.size() + page * PAGE_SIZE;
+        int to = Math.min(from + result.rows().size(), size());
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, placeholder));
+            endChange();
+        }
+        // A short page means rows were deleted since the count was read
+        if (result.rows().size() < Math.min(PAGE_SIZE, rowCount - page * PAGE_SIZE) && !reloadedForShortPage) {
+            reloadedForShortPage = true;
+            reload();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.library;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PooledConnection implements AutoCloseable {
+    private static final int MAX_CACHED_STATEMENTS = 64;
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    // Compiled statements keyed by SQL text, least recently used first
+    private final Map<String, PreparedStatement> statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            evictIdleStatements();
+            return false;
+        }
+    };
+
+    // The writer is leased re-entrantly, so leases nest; depth is how many are currently open
+    private int depth;
+    // The lease depth each cached statement was last handed out at, while that lease is open
+    private final Map<String, Integer> handedOutAt = new HashMap<>();
+    // Private statements for nested leases, closed when the lease that prepared them ends
+    private final Map<Integer, List<PreparedStatement>> nestedStatements = new HashMap<>();
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /*
+     * Cached statements belong to the connection: callers must not close them, only their ResultSets.
+     * A nested lease asking for SQL an outer lease was handed gets a statement of its own, since
+     * re-executing the shared one would close the outer caller's ResultSet mid-iteration.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        Integer owner = handedOutAt.get(sql);
+        if (owner != null && owner < depth) {
+            PreparedStatement nested = connection.prepareStatement(sql);
+            nestedStatements.computeIfAbsent(depth, d -> new ArrayList<>()).add(nested);
+            return nested;
+        }
+        handedOutAt.put(sql, depth);
+
+        PreparedStatement statement = statementCache.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            pool.recordStatementCacheHit();
+            statement.clearParameters();
+            return statement;
+        }
+        pool.recordStatementCacheMiss();
+        statement = connection.prepareStatement(sql);
+        statementCache.put(sql, statement);
+        return statement;
+    }
+
+    void beginLease() {
+        depth++;
+    }
+
+    void endLease() {
+        handedOutAt.values().removeIf(leaseDepth -> leaseDepth == depth);
+        // A lease that used more statements than the cache holds leaves it oversized until now
+        evictIdleStatements();
+        List<PreparedStatement> nested = nestedStatements.remove(depth);
+        if (nested != null) {
+            nested.forEach(PooledConnection::closeQuietly);
+        }
+        depth--;
+    }
+
+    /*
+     * Closes least recently used statements until the cache is back to its limit. Statements handed
+     * out to a lease that is still open are skipped, since closing one would end the caller's
+     * ResultSet mid-iteration; the cache may run over its limit until those leases end.
+     */
+    private void evictIdleStatements() {
+        Iterator<Map.Entry<String, PreparedStatement>> entries = statementCache.entrySet().iterator();
+        while (statementCache.size() > MAX_CACHED_STATEMENTS && entries.hasNext()) {
+            Map.Entry<String, PreparedStatement> entry = entries.next();
+            if (!handedOutAt.containsKey(entry.getKey())) {
+                closeQuietly(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    void clearStatementCache() {
+        statementCache.values().forEach(PooledConnection::closeQuietly);
+        statementCache.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Returns the lease to the pool; the physical connection stays open
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    void closePhysical() {
+        clearStatementCache();
+        try {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.library;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ * Read-only, column-per-field copy of the portfolio for dashboards and reports. Each property
+ * is one index into parallel primitive arrays, so totals, counts and group-bys are tight loops
+ * over long/int/byte arrays with no boxing or per-row objects. Snapshots at or above
+ * PARALLEL_THRESHOLD rows run their reductions on parallel streams unless told otherwise.
+ */
+public class PortfolioSnapshot {
+    public static final byte STATUS_VACANT = 0;
+    public static final byte STATUS_RENTED = 1;
+    public static final byte STATUS_OTHER = 2;
+    private static final String[] STATUS_NAMES = {"Vacant", "Rented", "Other"};
+
+    static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int PARALLEL_CHUNK = 16_384;
+
+    private final int size;
+    private final String[] propertyIds;
+    private final long[] rentPence;
+    private final long[] mortgagePence;
+    private final long[] profitPence;
+    private final int[] bedrooms;
+    private final int[] bathrooms;
+    private final int[] livingRooms;
+    private final int[] kitchens;
+    private final byte[] status;
+    // House types are dictionary-coded: houseTypeCodes[i] indexes houseTypeNames
+    private final byte[] houseTypeCodes;
+    private final String[] houseTypeNames;
+    // Sorted copies for percentiles, built on first use and keyed by the column they were sorted from
+    private final Map<long[], long[]> sortedColumns = new IdentityHashMap<>();
+    private boolean parallel;
+
+    private PortfolioSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.propertyIds = Arrays.copyOf(builder.propertyIds, size);
+        this.rentPence = Arrays.copyOf(builder.rentPence, size);
+        this.mortgagePence = Arrays.copyOf(builder.mortgagePence, size);
+        this.profitPence = new long[size];
+        this.bedrooms = Arrays.copyOf(builder.bedrooms, size);
+        this.bathrooms = Arrays.copyOf(builder.bathrooms, size);
+        this.livingRooms = Arrays.copyOf(builder.livingRooms, size);
+        this.kitchens = Arrays.copyOf(builder.kitchens, size);
+        this.status = Arrays.copyOf(builder.status, size);
+        this.houseTypeCodes = Arrays.copyOf(builder.houseTypeCodes, size);
+        this.houseTypeNames = builder.houseTypeDictionary.keySet().toArray(new String[0]);
+        this.parallel = size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        for (int i = 0; i < size; i++) {
+            profitPence[i] = status[i] == STATUS_VACANT ? 0 : rentPence[i] - mortgagePence[i];
+        }
+    }
+
+    public static PortfolioSnapshot of(List<PropertyApp.Property> properties) {
+        Builder builder = new Builder(properties.size());
+        for (PropertyApp.Property property : properties) {
+            builder.add(property);
+        }
+        return builder.build();
+    }
+
+    public static byte statusCode(String status) {
+        if ("Vacant".equals(status)) {
+            return STATUS_VACANT;
+        } else if ("Rented".equals(status)) {
+            return STATUS_RENTED;
+        }
+        return STATUS_OTHER;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getPropertyId(int index) {
+        return propertyIds[index];
+    }
+
+    public int rentedCount() {
+        return count(status, STATUS_RENTED);
+    }
+
+    public int vacantCount() {
+        return count(status, STATUS_VACANT);
+    }
+
+    // Percentage of properties that are rented, 0 for an empty portfolio
+    public double occupancyRate() {
+        return size == 0 ? 0 : (double) rentedCount() / size * 100;
+    }
+
+    public long totalRentPence() {
+        return sum(rentPence);
+    }
+
+    public long totalMortgagePence() {
+        return sum(mortgagePence);
+    }
+
+    public long totalProfitPence() {
+        return sum(profitPence);
+    }
+
+    public long totalBedrooms() {
+        IntStream values = IntStream.of(bedrooms);
+        return (parallel ? values.parallel() : values).asLongStream().sum();
+    }
+
+    public Map<String, Integer> countByStatus() {
+        int[] counts = new int[STATUS_NAMES.length];
+        for (int i = 0; i < size; i++) {
+            counts[status[i]]++;
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            result.put(STATUS_NAMES[code], counts[code]);
+        }
+        return result;
+    }
+
+    public Map<String, Long> totalProfitByHouseType() {
+        return sumByHouseType(profitPence);
+    }
+
+    public Map<String, Long> totalRentByHouseType() {
+        return sumByHouseType(rentPence);
+    }
+
+    public Map<Integer, Long> totalRentByBedrooms() {
+        Map<Integer, Long> totals = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            totals.merge(bedrooms[i], rentPence[i], Long::sum);
+        }
+        return totals;
+    }
+
+    // Nearest-rank percentile of rent in pence, p in [0, 100]; 0 for an empty portfolio
+    public long rentPercentile(double p) {
+        return percentile(rentPence, p);
+    }
+
+    public long profitPercentile(double p) {
+        return percentile(profitPence, p);
+    }
+
+    public long mortgagePercentile(double p) {
+        return percentile(mortgagePence, p);
+    }
+
+    public int[] getBedrooms() { return bedrooms.clone(); }
+    public int[] getBathrooms() { return bathrooms.clone(); }
+    public int[] getLivingRooms() { return livingRooms.clone(); }
+    public int[] getKitchens() { return kitchens.clone(); }
+
+    private Map<String, Long> sumByHouseType(long[] values) {
+        long[] totals = new long[houseTypeNames.length];
+        for (int i = 0; i < size; i++) {
+            totals[houseTypeCodes[i]] += values[i];
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < totals.length; code++) {
+            result.put(houseTypeNames[code], totals[code]);
+        }
+        return result;
+    }
+
+    private long sum(long[] values) {
+        if (parallel) {
+            return LongStream.of(values).parallel().sum();
+        }
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private int count(byte[] codes, byte code) {
+        if (parallel) {
+            int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            return IntStream.range(0, chunks).parallel()
+                .map(chunk -> countRange(codes, code, chunk * PARALLEL_CHUNK, Math.min(size, (chunk + 1) * PARALLEL_CHUNK)))
+                .sum();
+        }
+        return countRange(codes, code, 0, size);
+    }
+
+    private static int countRange(byte[] codes, byte code, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (codes[i] == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private synchronized long percentile(long[] values, double p) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = sortedColumns.computeIfAbsent(values, column -> {
+            long[] copy = column.clone();
+            if (parallel) {
+                Arrays.parallelSort(copy);
+            } else {
+                Arrays.sort(copy);
+            }
+            return copy;
+        });
+        double clamped = Math.max(0, Math.min(100, p));
+        int rank = (int) Math.ceil(clamped / 100 * size);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    // Grows its arrays like ArrayList so a snapshot can be filled from a streaming cursor of unknown length
+    public static class Builder {
+        private int size;
+        private String[] propertyIds;
+        private long[] rentPence;
+        private long[] mortgagePence;
+        private int[] bedrooms;
+        private int[] bathrooms;
+        private int[] livingRooms;
+        private int[] kitchens;
+        private byte[] status;
+        private byte[] houseTypeCodes;
+        private final Map<String, Byte> houseTypeDictionary = new LinkedHashMap<>();
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            propertyIds = new String[capacity];
+            rentPence = new long[capacity];
+            mortgagePence = new long[capacity];
+            bedrooms = new int[capacity];
+            bathrooms = new int[capacity];
+            livingRooms = new int[capacity];
+            kitchens = new int[capacity];
+            status = new byte[capacity];
+            houseTypeCodes = new byte[capacity];
+        }
+
+        public Builder add(PropertyApp.Property property) {
+            return add(property.getPropertyId(), property.getMonthlyRentPence(), property.getMonthlyMortgagePence(),
+                property.getStatus(), property.getHouseType(), property.getBedrooms(), property.getBathrooms(),
+                property.getLivingRooms(), property.getKitchens());
+        }
+
+        public Builder add(String propertyId, long rent, long mortgage, String statusName, String houseType,
+                           int bedroomCount, int bathroomCount, int livingRoomCount, int kitchenCount) {
+            if (size == propertyIds.length) {
+                grow();
+            }
+            propertyIds[size] = propertyId;
+            rentPence[size] = rent;
+            mortgagePence[size] = mortgage;
+            status[size] = statusCode(statusName);
+            houseTypeCodes[size] = houseTypeCode(houseType);
+            bedrooms[size] = bedroomCount;
+            bathrooms[size] = bathroomCount;
+            livingRooms[size] = livingRoomCount;
+            kitchens[size] = kitchenCount;
+            size++;
+            return this;
+        }
+
+        public PortfolioSnapshot build() {
+            return new PortfolioSnapshot(this);
+        }
+
+        private byte houseTypeCode(String houseType) {
+            String key = houseType == null || houseType.isEmpty() ? "Unspecified" : houseType;
+            Byte code = houseTypeDictionary.get(key);
+            if (code == null) {
+                if (houseTypeDictionary.size() > Byte.MAX_VALUE) {
+                    throw new IllegalStateException("More than " + (Byte.MAX_VALUE + 1) + " distinct house types");
+                }
+                code = (byte) houseTypeDictionary.size();
+                houseTypeDictionary.put(key, code);
+            }
+            return code;
+        }
+
+        private void grow() {
+            int capacity = propertyIds.length * 2;
+            propertyIds = Arrays.copyOf(propertyIds, capacity);
+            rentPence = Arrays.copyOf(rentPence, capacity);
+            mortgagePence = Arrays.copyOf(mortgagePence, capacity);
+            bedrooms = Arrays.copyOf(bedrooms, capacity);
+            bathrooms = Arrays.copyOf(bathrooms, capacity);
+            livingRooms = Arrays.copyOf(livingRooms, capacity);
+            kitchens = Arrays.copyOf(kitchens, capacity);
+            status = Arrays.copyOf(status, capacity);
+            houseTypeCodes = Arrays.copyOf(houseTypeCodes, capacity);
+        }
+    }
+}
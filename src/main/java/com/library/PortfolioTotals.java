@@ -0,0 +1,128 @@
+package com.library;
+
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/*
+ * Running portfolio totals kept in step with an observable property list by applying each
+ * change as a delta, so an edit costs O(1) instead of re-reducing the whole list. Properties are
+ * mutated in place before the table re-sets them, so the contribution each one last added is
+ * remembered and subtracted on removal, rather than recomputed from its already-changed fields.
+ * Must be used on the FX thread, like the list it watches.
+ */
+public class PortfolioTotals {
+
+    private record Contribution(long profitPence, long mortgagePence, long rentPence, boolean rented) {
+
+        static Contribution of(PropertyApp.Property property) {
+            boolean rented = PortfolioSnapshot.statusCode(property.getStatus()) == PortfolioSnapshot.STATUS_RENTED;
+            return new Contribution(property.getMonthlyProfitPence(), property.getMonthlyMortgagePence(),
+                property.getMonthlyRentPence(), rented);
+        }
+    }
+
+    private final ObservableList<PropertyApp.Property> properties;
+    private final Map<PropertyApp.Property, Contribution> contributions = new IdentityHashMap<>();
+    private final ReadOnlyIntegerWrapper size = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper rentedCount = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyLongWrapper totalProfitPence = new ReadOnlyLongWrapper();
+    private final ReadOnlyLongWrapper totalMortgagePence = new ReadOnlyLongWrapper();
+    private final ReadOnlyLongWrapper totalRentPence = new ReadOnlyLongWrapper();
+
+    private final ListChangeListener<PropertyApp.Property> listener = change -> {
+        while (change.next()) {
+            // Sorting only reorders rows, which leaves every total unchanged
+            if (change.wasPermutated()) {
+                continue;
+            }
+            if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    refresh(change.getList().get(i));
+                }
+                continue;
+            }
+            for (PropertyApp.Property removed : change.getRemoved()) {
+                remove(removed);
+            }
+            for (PropertyApp.Property added : change.getAddedSubList()) {
+                add(added);
+            }
+        }
+    };
+
+    public PortfolioTotals(ObservableList<PropertyApp.Property> properties) {
+        this.properties = properties;
+        for (PropertyApp.Property property : properties) {
+            add(property);
+        }
+        properties.addListener(listener);
+    }
+
+    // Re-counts one property after it was edited in place without the list being told
+    public void refresh(PropertyApp.Property property) {
+        if (contributions.containsKey(property)) {
+            remove(property);
+            add(property);
+        }
+    }
+
+    // Takes the totals as counted by the database, for a portfolio that is paged rather than held in the list
+    public void reset(DatabaseManager.PortfolioAggregates aggregates) {
+        contributions.clear();
+        size.set(aggregates.count());
+        rentedCount.set(aggregates.rentedCount());
+        totalProfitPence.set(aggregates.totalProfitPence());
+        totalMortgagePence.set(aggregates.totalMortgagePence());
+        totalRentPence.set(aggregates.totalRentPence());
+    }
+
+    private void add(PropertyApp.Property property) {
+        Contribution contribution = Contribution.of(property);
+        Contribution previous = contributions.put(property, contribution);
+        if (previous != null) {
+            apply(previous, -1);
+        } else {
+            size.set(size.get() + 1);
+        }
+        apply(contribution, 1);
+    }
+
+    private void remove(PropertyApp.Property property) {
+        Contribution contribution = contributions.remove(property);
+        if (contribution != null) {
+            size.set(size.get() - 1);
+            apply(contribution, -1);
+        }
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        totalProfitPence.set(totalProfitPence.get() + sign * contribution.profitPence());
+        totalMortgagePence.set(totalMortgagePence.get() + sign * contribution.mortgagePence());
+        totalRentPence.set(totalRentPence.get() + sign * contribution.rentPence());
+        if (contribution.rented()) {
+            rentedCount.set(rentedCount.get() + sign);
+        }
+    }
+
+    public void detach() {
+        properties.removeListener(listener);
+    }
+
+    // Percentage of properties that are rented, 0 for an empty portfolio
+    public double occupancyRate() {
+        int count = size.get();
+        return count == 0 ? 0 : (double) rentedCount.get() / count * 100;
+    }
+
+    public ReadOnlyIntegerProperty sizeProperty() { return size.getReadOnlyProperty(); }
+    public ReadOnlyIntegerProperty rentedCountProperty() { return rentedCount.getReadOnlyProperty(); }
+    public ReadOnlyLongProperty totalProfitPenceProperty() { return totalProfitPence.getReadOnlyProperty(); }
+    public ReadOnlyLongProperty totalMortgagePenceProperty() { return totalMortgagePence.getReadOnlyProperty(); }
+    public ReadOnlyLongProperty totalRentPenceProperty() { return totalRentPence.getReadOnlyProperty(); }
+}
@@ -4,11 +4,21 @@ import java.io.FileInputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -51,6 +61,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.converter.DoubleStringConverter;
 
 public class PropertyApp extends Application {
@@ -63,8 +74,23 @@ public class PropertyApp extends Application {
         FXCollections.observableArrayList("Rented", "Vacant");
     private static final ObservableList<String> HOUSE_TYPES = 
         FXCollections.observableArrayList("Detached", "Semi-Detached", "Terraced", "Apartment", "Bungalow", "Cottage");
+    // Full-text matches fetched per entity type for the search box
+    private static final int SEARCH_RESULT_LIMIT = 1000;
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(200);
+    // Portfolios with more properties than this are paged from the database instead of loaded at login
+    private static final int PAGED_THRESHOLD = 50_000;
+    private static final Duration STATUS_DISPLAY_TIME = Duration.seconds(2);
     private DatabaseManager dbManager;
+    private AsyncDatabaseManager asyncDb;
+    private TaskService taskService;
+    // One timer for the status line, so a newer message restarts it rather than being cleared by an older one
+    private PauseTransition statusTimer;
+    private PropertyWriteBehind writeBehind;
     private ObservableList<Property> properties;
+    // Set instead of filling properties when the portfolio is paged
+    private PagedPropertyList pagedProperties;
+    private PortfolioTotals portfolioTotals;
+    private PropertySearchIndex propertySearchIndex;
 
     // CSS Styles
     private static final String MAIN_BACKGROUND = "-fx-background-color: #f5f6fa;";
@@ -114,8 +140,9 @@ public class PropertyApp extends Application {
         private String propertyId;
         private String ownerName;
         private String address;
-        private double monthlyRent;
-        private double monthlyMortgage;
+        // Money is held in pence so portfolio totals are exact long sums
+        private long monthlyRentPence;
+        private long monthlyMortgagePence;
         private String status;
         private int bedrooms;
         private int livingRooms;
@@ -129,8 +156,8 @@ public class PropertyApp extends Application {
             this.propertyId = propertyId;
             this.ownerName = ownerName;
             this.address = address;
-            this.monthlyRent = monthlyRent;
-            this.monthlyMortgage = monthlyMortgage;
+            this.monthlyRentPence = Money.toPence(monthlyRent);
+            this.monthlyMortgagePence = Money.toPence(monthlyMortgage);
             this.status = status;
             this.bedrooms = 0;
             this.livingRooms = 0;
@@ -150,17 +177,27 @@ public class PropertyApp extends Application {
         public String getAddress() { return address; }
         public void setAddress(String address) { this.address = address; }
         
-        public double getMonthlyRent() { return monthlyRent; }
-        public void setMonthlyRent(double monthlyRent) { this.monthlyRent = monthlyRent; }
+        public double getMonthlyRent() { return Money.toPounds(monthlyRentPence); }
+        public void setMonthlyRent(double monthlyRent) { this.monthlyRentPence = Money.toPence(monthlyRent); }
+
+        public long getMonthlyRentPence() { return monthlyRentPence; }
+        public void setMonthlyRentPence(long monthlyRentPence) { this.monthlyRentPence = monthlyRentPence; }
         
-        public double getMonthlyMortgage() { return monthlyMortgage; }
-        public void setMonthlyMortgage(double monthlyMortgage) { this.monthlyMortgage = monthlyMortgage; }
+        public double getMonthlyMortgage() { return Money.toPounds(monthlyMortgagePence); }
+        public void setMonthlyMortgage(double monthlyMortgage) { this.monthlyMortgagePence = Money.toPence(monthlyMortgage); }
+
+        public long getMonthlyMortgagePence() { return monthlyMortgagePence; }
+        public void setMonthlyMortgagePence(long monthlyMortgagePence) { this.monthlyMortgagePence = monthlyMortgagePence; }
         
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
         
         public double getMonthlyProfit() { 
-            return status.equals("Vacant") ? 0 : monthlyRent - monthlyMortgage;
+            return Money.toPounds(getMonthlyProfitPence());
+        }
+
+        public long getMonthlyProfitPence() {
+            return status.equals("Vacant") ? 0 : monthlyRentPence - monthlyMortgagePence;
         }
 
         // Additional property details getters and setters
@@ -181,17 +218,48 @@ public class PropertyApp extends Application {
 
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
+
+        public Property copy() {
+            Property copy = new Property(propertyId, ownerName, address, 0, 0, status);
+            copy.setMonthlyRentPence(monthlyRentPence);
+            copy.setMonthlyMortgagePence(monthlyMortgagePence);
+            copy.setBedrooms(bedrooms);
+            copy.setLivingRooms(livingRooms);
+            copy.setKitchens(kitchens);
+            copy.setHouseType(houseType);
+            copy.setBathrooms(bathrooms);
+            copy.setDescription(description);
+            return copy;
+        }
     }
 
     @Override
     public void init() {
         userManager = UserManager.getInstance();
         dbManager = DatabaseManager.getInstance();
+        asyncDb = new AsyncDatabaseManager(dbManager);
+        taskService = new TaskService();
+        writeBehind = new PropertyWriteBehind(asyncDb);
         properties = FXCollections.observableArrayList();
+        // A paged portfolio's totals come from the database, so they are re-read once edits have been written
+        writeBehind.dirtyProperty().addListener((observable, wasDirty, dirty) -> {
+            if (!dirty && pagedProperties != null) {
+                pagedProperties.refreshTotals();
+            }
+        });
     }
 
     @Override
     public void stop() {
+        if (writeBehind != null) {
+            writeBehind.flushAndWait();
+        }
+        if (taskService != null) {
+            taskService.shutdown();
+        }
+        if (asyncDb != null) {
+            asyncDb.shutdown();
+        }
         if (dbManager != null) {
             dbManager.closeConnection();
         }
@@ -200,12 +268,86 @@ public class PropertyApp extends Application {
         }
     }
 
+    // Table edits are buffered and coalesced; the save indicator reports when they reach the database
+    private static Long parseRentPence(String text) {
+        try {
+            return text == null || text.isBlank() ? null : Money.toPence(Double.parseDouble(text.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // A null list means the portfolio is too large to load and is paged in as the table scrolls
+    private void showPortfolio(List<Property> loaded) {
+        if (loaded != null) {
+            pagedProperties = null;
+            properties.setAll(loaded);
+        } else {
+            properties.clear();
+            pagedProperties = new PagedPropertyList(asyncDb);
+        }
+    }
+
+    private static DatabaseManager.PropertySort pagedSort(String choice) {
+        switch (choice) {
+            case "Sort by Rent (High to Low)":
+                return DatabaseManager.PropertySort.RENT_DESC;
+            case "Sort by Profit (High to Low)":
+                return DatabaseManager.PropertySort.PROFIT_DESC;
+            default:
+                return DatabaseManager.PropertySort.PROPERTY_ID;
+        }
+    }
+
+    // Snapshots the rows a background task will read, taken on the FX thread
+    private static List<Property> copyOf(List<Property> rows) {
+        List<Property> copies = new ArrayList<>(rows.size());
+        for (Property property : rows) {
+            copies.add(property.copy());
+        }
+        return copies;
+    }
+
     private void savePropertyToDatabase(Property property) {
-        dbManager.saveProperty(property);
-        showSavedStatus();
+        if (propertySearchIndex != null) {
+            propertySearchIndex.update(property);
+        }
+        writeBehind.markDirty(property);
+    }
+
+    // For edits made outside the table: saves like a cell edit, then re-publishes the row so the
+    // totals, the table filters and the search index see its new values
+    private void saveEditedProperty(Property property) {
+        savePropertyToDatabase(property);
+        if (pagedProperties != null) {
+            pagedProperties.refresh(property);
+            return;
+        }
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i) == property) {
+                properties.set(i, property);
+                break;
+            }
+        }
+    }
+
+    // The new ID has been checked as free; an already stored property is renamed in place so its history follows it
+    private void changePropertyId(Property property, String newId) {
+        String oldId = property.getPropertyId();
+        if (!oldId.isEmpty() && !oldId.equals(newId)) {
+            asyncDb.run(db -> db.renameProperty(oldId, newId));
+        }
+        property.setPropertyId(newId);
+        savePropertyToDatabase(property);
     }
 
+    // Loads the dialog's data in the background and opens it once everything has arrived
     private void showPropertyDetails(Property property) {
+        asyncDb.getPropertyDetails(property.getPropertyId())
+            .thenAccept(details -> showPropertyDetails(property, details));
+    }
+
+    private void showPropertyDetails(Property property, PropertyDetails details) {
         Dialog<Property> dialog = new Dialog<>();
         dialog.setTitle("Property Details");
         dialog.setHeaderText("View/Edit Property Details");
@@ -241,21 +383,24 @@ public class PropertyApp extends Application {
         
         // Payment dates list
         ListView<String> paymentsList = new ListView<>();
-        List<LocalDate> paymentDates = dbManager.getRentPaymentDates(property.getPropertyId());
+        List<LocalDate> paymentDates = details.getPaymentDates();
         paymentDates.forEach(date -> 
             paymentsList.getItems().add(date.format(DateTimeFormatter.ofPattern("d MMMM yyyy"))));
         
         addPaymentButton.setOnAction(e -> {
             LocalDate selectedDate = paymentDatePicker.getValue();
             if (selectedDate != null) {
-                dbManager.saveRentPaymentDate(property.getPropertyId(), selectedDate, 
-                    property.getMonthlyRent(), "PAID");
-                paymentsList.getItems().clear();
-                List<LocalDate> updatedDates = dbManager.getRentPaymentDates(property.getPropertyId());
-                updatedDates.forEach(date -> 
-                    paymentsList.getItems().add(date.format(DateTimeFormatter.ofPattern("d MMMM yyyy"))));
+                double rent = property.getMonthlyRent();
+                asyncDb.write(db -> {
+                    db.saveRentPaymentDate(property.getPropertyId(), selectedDate, rent, "PAID");
+                    return db.getRentPaymentDates(property.getPropertyId());
+                }).thenAccept(updatedDates -> {
+                    paymentsList.getItems().clear();
+                    updatedDates.forEach(date ->
+                        paymentsList.getItems().add(date.format(DateTimeFormatter.ofPattern("d MMMM yyyy"))));
+                    showSavedStatus("Rent payment date saved successfully");
+                });
                 paymentDatePicker.setValue(null);
-                showSavedStatus("Rent payment date saved successfully");
             } else {
                 showAlert("Error", "Please select a payment date");
             }
@@ -316,12 +461,11 @@ public class PropertyApp extends Application {
         expensesTable.getColumns().addAll(dateCol, descCol, categoryCol, amountCol);
         
         // Load existing expenses
-        List<PropertyExpense> expenses = dbManager.getPropertyExpenses(property.getPropertyId());
+        List<PropertyExpense> expenses = details.getExpenses();
         expensesTable.setItems(FXCollections.observableArrayList(expenses));
         
         // Total expenses label
-        Label totalExpensesLabel = new Label(String.format("Total Expenses: £%.2f", 
-            dbManager.getTotalExpenses(property.getPropertyId())));
+        Label totalExpensesLabel = new Label("Total Expenses: " + details.getTotalExpenses());
         totalExpensesLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
         
         addExpenseButton.setOnAction(e -> {
@@ -339,17 +483,15 @@ public class PropertyApp extends Application {
                 PropertyExpense expense = new PropertyExpense(
                     0, property.getPropertyId(), description, amount, date, category
                 );
-                dbManager.saveExpense(expense);
-                
-                // Refresh expense list from database
-                List<PropertyExpense> updatedExpenses = dbManager.getPropertyExpenses(property.getPropertyId());
-                expensesTable.setItems(FXCollections.observableArrayList(updatedExpenses));
-                
-                // Update total expenses
-                totalExpensesLabel.setText(String.format("Total Expenses: £%.2f", 
-                    dbManager.getTotalExpenses(property.getPropertyId())));
-                
-                showSavedStatus("Expense saved successfully");
+                asyncDb.write(db -> {
+                    db.saveExpense(expense);
+                    // Refresh expense list and total from database
+                    return db.getPropertyDetails(property.getPropertyId());
+                }).thenAccept(updated -> {
+                    expensesTable.setItems(FXCollections.observableArrayList(updated.getExpenses()));
+                    totalExpensesLabel.setText("Total Expenses: " + updated.getTotalExpenses());
+                    showSavedStatus("Expense saved successfully");
+                });
                 
                 // Clear inputs
                 expenseDescField.clear();
@@ -409,7 +551,8 @@ public class PropertyApp extends Application {
         emailList.setPrefHeight(150);
 
         // Load existing tenant emails
-        List<Tenant> tenants = dbManager.getTenantsForProperty(property.getPropertyId());
+        // The dialog edits its own copies; the tenants in details are shared with the details cache
+        List<Tenant> tenants = details.getTenants().stream().map(Tenant::copy).toList();
         for (Tenant tenant : tenants) {
             if (tenant.getEmail() != null && !tenant.getEmail().isEmpty()) {
                 emailList.getItems().add(String.format("%s (%s)", tenant.getName(), tenant.getEmail()));
@@ -447,7 +590,7 @@ public class PropertyApp extends Application {
             tenant.setEmail(email);
             tenant.setEmailNotifications(true);
             
-            dbManager.saveTenant(tenant);
+            asyncDb.saveTenant(tenant);
             emailList.getItems().add(String.format("%s (%s)", name, email));
             
             // Clear fields
@@ -469,7 +612,7 @@ public class PropertyApp extends Application {
                     if (tenant.getName().equals(name)) {
                         tenant.setEmail("");
                         tenant.setEmailNotifications(false);
-                        dbManager.saveTenant(tenant);
+                        asyncDb.saveTenant(tenant);
                         break;
                     }
                 }
@@ -561,12 +704,26 @@ public class PropertyApp extends Application {
             Button sendReminderButton = new Button("Send Rent Reminder");
             sendReminderButton.setStyle(BUTTON_STYLE);
             sendReminderButton.setOnAction(e -> {
-                CommunicationManager.getInstance().sendRentReminder(currentTenant, property);
-                currentTenant.updateLastContact("EMAIL");
-                dbManager.saveTenant(currentTenant);
-                historyList.getItems().add(0, String.format("Sent rent reminder email (%s)",
-                    LocalDate.now().format(DateTimeFormatter.ofPattern("d MMMM yyyy"))));
-                showSavedStatus("Rent reminder sent successfully");
+                Tenant contacted = currentTenant;
+                // The task reads copies; the dialog may keep editing the originals while the email is sent
+                Tenant recipient = contacted.copy();
+                Property rented = property.copy();
+                taskService.submit("rent-reminder:" + contacted.getId(), "Rent reminder to " + contacted.getName(),
+                    progress -> {
+                        CommunicationManager.getInstance().sendRentReminder(recipient, rented);
+                        return null;
+                    })
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            showSavedStatus("Rent reminder could not be sent");
+                            return;
+                        }
+                        contacted.updateLastContact("EMAIL");
+                        asyncDb.saveTenant(contacted);
+                        historyList.getItems().add(0, String.format("Sent rent reminder email (%s)",
+                            LocalDate.now().format(DateTimeFormatter.ofPattern("d MMMM yyyy"))));
+                        showSavedStatus("Rent reminder sent successfully");
+                    });
             });
 
             Button savePreferencesButton = new Button("Save Preferences");
@@ -576,7 +733,8 @@ public class PropertyApp extends Application {
                 currentTenant.setSmsNotifications(smsNotifications.isSelected());
                 currentTenant.setEmail(emailField.getText());
                 currentTenant.setPhone(phoneField.getText());
-                dbManager.saveTenant(currentTenant);
+                Tenant updatedTenant = currentTenant;
+                asyncDb.saveTenant(updatedTenant);
                 showSavedStatus("Communication preferences saved successfully");
             });
 
@@ -584,7 +742,53 @@ public class PropertyApp extends Application {
 
             historyBox.getChildren().addAll(historyTitle, historyList);
 
-            communicationBox.getChildren().addAll(preferencesBox, historyBox, actionsBox);
+            // Tenant Documents Section
+            VBox documentsBox = new VBox(5);
+            documentsBox.setStyle("-fx-background-color: white; -fx-padding: 15px; -fx-border-color: #e1e1e1; -fx-border-radius: 4px;");
+
+            Label documentsTitle = new Label("Tenant Documents");
+            documentsTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+            ListView<String> documentList = new ListView<>();
+            documentList.setPrefHeight(120);
+            int tenantId = currentTenant.getId();
+            asyncDb.read(db -> db.getTenantDocuments(tenantId))
+                .thenAccept(documents -> documentList.getItems().setAll(documents));
+
+            Button attachDocumentButton = new Button("Attach Document");
+            attachDocumentButton.setStyle(BUTTON_STYLE);
+            attachDocumentButton.setOnAction(e -> {
+                javafx.stage.FileChooser fileChooser = new javafx.stage.FileChooser();
+                fileChooser.setTitle("Attach Tenant Document");
+                java.io.File file = fileChooser.showOpenDialog(documentList.getScene().getWindow());
+
+                if (file != null) {
+                    String path = file.getAbsolutePath();
+                    asyncDb.run(db -> db.addTenantDocument(tenantId, path)).thenRun(() -> {
+                        if (!documentList.getItems().contains(path)) {
+                            documentList.getItems().add(path);
+                        }
+                        showSavedStatus("Document attached successfully");
+                    });
+                }
+            });
+
+            Button removeDocumentButton = new Button("Remove Document");
+            removeDocumentButton.setStyle(BUTTON_STYLE);
+            removeDocumentButton.disableProperty().bind(documentList.getSelectionModel().selectedItemProperty().isNull());
+            removeDocumentButton.setOnAction(e -> {
+                String path = documentList.getSelectionModel().getSelectedItem();
+                asyncDb.run(db -> db.removeTenantDocument(tenantId, path)).thenRun(() -> {
+                    documentList.getItems().remove(path);
+                    showSavedStatus("Document removed successfully");
+                });
+            });
+
+            HBox documentActions = new HBox(10, attachDocumentButton, removeDocumentButton);
+            documentActions.setAlignment(Pos.CENTER_LEFT);
+            documentsBox.getChildren().addAll(documentsTitle, documentList, documentActions);
+
+            communicationBox.getChildren().addAll(preferencesBox, historyBox, documentsBox, actionsBox);
         } else {
             Label noTenantLabel = new Label("No tenant currently assigned to this property");
             noTenantLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #7f8c8d;");
@@ -646,7 +850,7 @@ public class PropertyApp extends Application {
         });
 
         dialog.showAndWait().ifPresent(updatedProperty -> {
-            dbManager.saveProperty(updatedProperty);
+            saveEditedProperty(updatedProperty);
             showSavedStatus("Property details updated successfully");
         });
     }
@@ -707,10 +911,17 @@ public class PropertyApp extends Application {
             User user = userManager.authenticateUser(username, password);
             if (user != null) {
                 currentUser = user;
-                dbManager.setDatabase(user.getDbPath());
-                properties.setAll(dbManager.loadProperties());
-                stage.setScene(createMainScene());
-                stage.setMaximized(true);
+                loginButton.setDisable(true);
+                asyncDb.openAndLoad(user.getDbPath(), PAGED_THRESHOLD).whenComplete((loaded, error) -> {
+                    loginButton.setDisable(false);
+                    if (error != null) {
+                        errorLabel.setText("Could not open your property database");
+                        return;
+                    }
+                    showPortfolio(loaded);
+                    stage.setScene(createMainScene());
+                    stage.setMaximized(true);
+                });
             } else {
                 errorLabel.setText("Invalid username or password");
                 passwordField.clear();
@@ -780,10 +991,11 @@ public class PropertyApp extends Application {
             dialog.showAndWait().ifPresent(user -> {
                 if (user != null) {
                     currentUser = user;
-                    dbManager.setDatabase(user.getDbPath());
-                    properties.clear();
-                    stage.setScene(createMainScene());
-                    stage.setMaximized(true);
+                    asyncDb.openAndLoad(user.getDbPath(), PAGED_THRESHOLD).thenAccept(loaded -> {
+                        showPortfolio(loaded);
+                        stage.setScene(createMainScene());
+                        stage.setMaximized(true);
+                    });
                 }
             });
         });
@@ -837,6 +1049,10 @@ public class PropertyApp extends Application {
         propertiesView.setPadding(new Insets(10));
 
         TableView<Property> table = new TableView<>();
+        PropertyTableModel tableModel = new PropertyTableModel(properties);
+        PagedPropertyList paged = pagedProperties;
+        // Re-publishes a row edited in place to whichever list the table is showing
+        IntConsumer refreshRow = paged != null ? paged::refresh : tableModel::refresh;
         table.setStyle(TABLE_STYLE);
         table.setEditable(true);
 
@@ -844,7 +1060,9 @@ public class PropertyApp extends Application {
         table.setRowFactory(tv -> {
             TableRow<Property> row = new TableRow<>();
             row.itemProperty().addListener((obs, oldItem, newItem) -> {
-                if (newItem == null) {
+                // Rows still loading are left unstyled and cannot be edited until their page arrives
+                row.setEditable(newItem == null || paged == null || !paged.isPlaceholder(newItem));
+                if (newItem == null || !row.isEditable()) {
                     row.setStyle("");
                 } else {
                     if (newItem.getStatus().equals("Vacant")) {
@@ -874,7 +1092,24 @@ public class PropertyApp extends Application {
                 return;
             }
             
-            // Check if ID is already in use by another property
+            // Check if ID is already in use by another property; a paged portfolio asks the database
+            if (paged != null) {
+                String oldId = property.getPropertyId();
+                if (newId.equals(oldId)) {
+                    return;
+                }
+                table.refresh(); // Shows the old ID until the database has answered
+                asyncDb.read(db -> db.propertyExists(newId)).thenAccept(idExists -> {
+                    if (idExists) {
+                        showSavedStatus("Property ID already exists");
+                    } else if (property.getPropertyId().equals(oldId)) {
+                        changePropertyId(property, newId);
+                        table.refresh();
+                    }
+                });
+                return;
+            }
+
             boolean idExists = properties.stream()
                 .filter(p -> p != property) // Exclude current property
                 .anyMatch(p -> p.getPropertyId().equals(newId));
@@ -885,9 +1120,7 @@ public class PropertyApp extends Application {
                 return;
             }
             
-            // ID is valid, save it
-            property.setPropertyId(newId);
-            savePropertyToDatabase(property);
+            changePropertyId(property, newId);
             table.refresh();
         });
         idCol.setStyle(columnStyle);
@@ -921,7 +1154,7 @@ public class PropertyApp extends Application {
             savePropertyToDatabase(event.getRowValue());
             table.refresh(); // Refresh to update profit calculation
             // Trigger the total profit update
-            table.getItems().set(event.getTablePosition().getRow(), event.getRowValue());
+            refreshRow.accept(event.getTablePosition().getRow());
         });
         rentCol.setStyle(columnStyle + "-fx-alignment: CENTER-RIGHT;");
 
@@ -934,7 +1167,7 @@ public class PropertyApp extends Application {
             savePropertyToDatabase(event.getRowValue());
             table.refresh(); // Refresh to update profit calculation
             // Trigger the total profit update
-            table.getItems().set(event.getTablePosition().getRow(), event.getRowValue());
+            refreshRow.accept(event.getTablePosition().getRow());
         });
         mortgageCol.setStyle(columnStyle + "-fx-alignment: CENTER-RIGHT;");
 
@@ -951,7 +1184,7 @@ public class PropertyApp extends Application {
             savePropertyToDatabase(property);
             table.refresh(); // Refresh to update rent and profit display
             // Trigger the total profit update
-            table.getItems().set(event.getTablePosition().getRow(), event.getRowValue());
+            refreshRow.accept(event.getTablePosition().getRow());
         });
         statusCol.setStyle(columnStyle);
 
@@ -992,6 +1225,9 @@ public class PropertyApp extends Application {
                     setGraphic(null);
                 } else {
                     Property property = getTableView().getItems().get(getIndex());
+                    boolean loading = paged != null && paged.isPlaceholder(property);
+                    viewButton.setDisable(loading);
+                    deleteButton.setDisable(loading);
                     
                     viewButton.setOnAction(event -> showPropertyDetails(property));
                     
@@ -1003,9 +1239,20 @@ public class PropertyApp extends Application {
                         
                         alert.showAndWait().ifPresent(response -> {
                             if (response == ButtonType.OK) {
-                                dbManager.deleteProperty(property.getPropertyId());
-                                properties.remove(property);
-                                showSavedStatus("Property deleted successfully");
+                                writeBehind.discard(property);
+                                asyncDb.deleteProperty(property.getPropertyId())
+                                    .thenRun(() -> {
+                                        showSavedStatus("Property deleted successfully");
+                                        // Rows after a deleted one shift up, so the paged window is re-read
+                                        if (paged != null) {
+                                            paged.reset();
+                                        }
+                                    });
+                                if (paged != null) {
+                                    paged.removePinned(property);
+                                } else {
+                                    properties.remove(property);
+                                }
                             }
                         });
                     });
@@ -1017,7 +1264,19 @@ public class PropertyApp extends Application {
         actionsCol.setStyle("-fx-alignment: CENTER;");
 
         table.getColumns().addAll(idCol, ownerCol, addressCol, rentCol, mortgageCol, statusCol, profitCol, actionsCol);
-        table.setItems(properties);
+        // The sorted list does the sorting, so header clicks only need to change the table's comparator.
+        // A paged portfolio is ordered by the database, through the Sort box only.
+        ObjectProperty<Comparator<Property>> chosenSort = new SimpleObjectProperty<>();
+        if (paged != null) {
+            table.setItems(paged);
+            for (TableColumn<Property, ?> column : table.getColumns()) {
+                column.setSortable(false);
+            }
+        } else {
+            table.setItems(tableModel.items());
+            tableModel.bindHeaderComparator(table.comparatorProperty(), chosenSort);
+        }
+        table.setSortPolicy(sortedTable -> true);
 
         // Add Property Button
         Button addButton = new Button("Add New Property");
@@ -1034,8 +1293,19 @@ public class PropertyApp extends Application {
         addButton.setOnAction(e -> {
             // For vacant properties, rent is always 0
             Property newProperty = new Property("", "", "", 0.0, 0.0, "Vacant");
+            if (paged != null) {
+                paged.addPinned(newProperty);
+                table.scrollTo(0);
+                table.edit(0, idCol);
+                return;
+            }
             properties.add(newProperty);
-            table.edit(properties.size() - 1, idCol);
+            // Its row depends on the current filters and sort, and it may be filtered out entirely
+            int row = tableModel.items().indexOf(newProperty);
+            if (row >= 0) {
+                table.scrollTo(row);
+                table.edit(row, idCol);
+            }
         });
 
         // Status label for save confirmation
@@ -1071,9 +1341,13 @@ public class PropertyApp extends Application {
         
         // Add logout handler
         logoutButton.setOnAction(e -> {
+            // Write any buffered edits before the user's database is closed
+            writeBehind.flushAndWait();
+
             // Clear current user data
             currentUser = null;
             properties.clear();
+            pagedProperties = null;
             
             // Switch back to login scene
             Stage stage = (Stage) logoutButton.getScene().getWindow();
@@ -1082,7 +1356,14 @@ public class PropertyApp extends Application {
             stage.centerOnScreen();
         });
 
-        rightContainer.getChildren().add(logoutButton);
+        // Unsaved / saved indicator for buffered table edits
+        Label saveStateLabel = new Label();
+        saveStateLabel.textProperty().bind(writeBehind.statusProperty());
+        saveStateLabel.styleProperty().bind(javafx.beans.binding.Bindings.when(writeBehind.dirtyProperty())
+            .then("-fx-font-size: 13px; -fx-text-fill: #e67e22;")
+            .otherwise("-fx-font-size: 13px; -fx-text-fill: #27ae60;"));
+
+        rightContainer.getChildren().addAll(saveStateLabel, logoutButton);
 
         // Logo
         try {
@@ -1115,10 +1396,27 @@ public class PropertyApp extends Application {
             -fx-alignment: center;
         """;
 
+        // Totals follow the rows the table shows by deltas, so the cards and totals bar match the filters;
+        // a paged portfolio is not filtered and takes its totals from the database instead
+        if (portfolioTotals != null) {
+            portfolioTotals.detach();
+        }
+        portfolioTotals = new PortfolioTotals(tableModel.items());
+        PortfolioTotals totals = portfolioTotals;
+        if (propertySearchIndex != null) {
+            propertySearchIndex.detach(properties);
+        }
+        propertySearchIndex = new PropertySearchIndex(properties);
+        if (paged != null) {
+            totals.reset(paged.aggregatesProperty().get());
+            paged.aggregatesProperty().addListener((observable, oldValue, aggregates) -> totals.reset(aggregates));
+        }
+
         // Total Properties Card
         VBox propertiesCard = new VBox(5);
         propertiesCard.setStyle(cardStyle);
-        Label propCount = new Label(String.valueOf(properties.size()));
+        Label propCount = new Label();
+        propCount.textProperty().bind(totals.sizeProperty().asString());
         propCount.setFont(Font.font("System", FontWeight.BOLD, 16));
         Label propLabel = new Label("Total Properties");
         propLabel.setStyle("-fx-font-size: 12px;");
@@ -1127,12 +1425,9 @@ public class PropertyApp extends Application {
         // Occupancy Rate Card
         VBox occupancyCard = new VBox(5);
         occupancyCard.setStyle(cardStyle);
-        long rentedCount = properties.stream()
-            .filter(p -> p.getStatus().equals("Rented"))
-            .count();
-        double occupancyRate = properties.isEmpty() ? 0 : 
-            (double) rentedCount / properties.size() * 100;
-        Label occRate = new Label(String.format("%.1f%%", occupancyRate));
+        Label occRate = new Label();
+        occRate.textProperty().bind(Bindings.createStringBinding(
+            () -> String.format("%.1f%%", totals.occupancyRate()), totals.sizeProperty(), totals.rentedCountProperty()));
         occRate.setFont(Font.font("System", FontWeight.BOLD, 16));
         Label occLabel = new Label("Occupancy Rate");
         occLabel.setStyle("-fx-font-size: 12px;");
@@ -1141,10 +1436,9 @@ public class PropertyApp extends Application {
         // Monthly Income Card
         VBox incomeCard = new VBox(5);
         incomeCard.setStyle(cardStyle);
-        double totalIncome = properties.stream()
-            .mapToDouble(Property::getMonthlyProfit)
-            .sum();
-        Label incomeAmount = new Label(String.format("£%.2f", totalIncome));
+        Label incomeAmount = new Label();
+        incomeAmount.textProperty().bind(Bindings.createStringBinding(
+            () -> Money.format(totals.totalProfitPenceProperty().get()), totals.totalProfitPenceProperty()));
         incomeAmount.setFont(Font.font("System", FontWeight.BOLD, 16));
         Label incomeLabel = new Label("Monthly Income");
         incomeLabel.setStyle("-fx-font-size: 12px;");
@@ -1157,7 +1451,7 @@ public class PropertyApp extends Application {
 
         // Search bar
         TextField searchField = new TextField();
-        searchField.setPromptText("Search properties...");
+        searchField.setPromptText("Search properties, tenants, maintenance...");
         searchField.setStyle("""
             -fx-pref-width: 300px;
             """ + INPUT_FIELD_STYLE);
@@ -1168,6 +1462,19 @@ public class PropertyApp extends Application {
         statusFilter.setValue("All Statuses");
         statusFilter.setStyle(INPUT_FIELD_STYLE);
 
+        ComboBox<String> houseTypeFilter = new ComboBox<>();
+        houseTypeFilter.getItems().add("All Types");
+        houseTypeFilter.getItems().addAll(HOUSE_TYPES);
+        houseTypeFilter.setValue("All Types");
+        houseTypeFilter.setStyle(INPUT_FIELD_STYLE);
+
+        TextField minRentField = new TextField();
+        minRentField.setPromptText("Min rent");
+        minRentField.setStyle("-fx-pref-width: 90px;" + INPUT_FIELD_STYLE);
+        TextField maxRentField = new TextField();
+        maxRentField.setPromptText("Max rent");
+        maxRentField.setStyle("-fx-pref-width: 90px;" + INPUT_FIELD_STYLE);
+
         // Sort controls
         ComboBox<String> sortBy = new ComboBox<>();
         sortBy.getItems().addAll("Sort by ID", "Sort by Rent (High to Low)", "Sort by Profit (High to Low)");
@@ -1178,6 +1485,8 @@ public class PropertyApp extends Application {
         Button exportPdfButton = new Button("Export PDF");
         Button exportExcelButton = new Button("Export Excel");
         Button bulkEmailButton = new Button("Email All Tenants");
+        Button backupButton = new Button("Backup Database");
+        Button archiveButton = new Button("Archive History");
         
         String exportButtonStyle = """
             -fx-background-color: #3498db;
@@ -1190,6 +1499,8 @@ public class PropertyApp extends Application {
         exportPdfButton.setStyle(exportButtonStyle);
         exportExcelButton.setStyle(exportButtonStyle);
         bulkEmailButton.setStyle(exportButtonStyle);
+        backupButton.setStyle(exportButtonStyle);
+        archiveButton.setStyle(exportButtonStyle);
         
         bulkEmailButton.setOnAction(e -> {
             // Create bulk email dialog
@@ -1254,11 +1565,11 @@ public class PropertyApp extends Application {
             });
 
             dialog.showAndWait().ifPresent(result -> {
-                // Get all tenants with email notifications enabled
-                List<Tenant> allTenants = new ArrayList<>();
-                for (Property property : properties) {
-                    List<Tenant> propertyTenants = dbManager.getTenantsForProperty(property.getPropertyId());
-                    allTenants.addAll(propertyTenants);
+                List<String> propertyIds = new ArrayList<>();
+                if (paged == null) {
+                    for (Property property : properties) {
+                        propertyIds.add(property.getPropertyId());
+                    }
                 }
 
                 // Prepare email parameters
@@ -1268,15 +1579,30 @@ public class PropertyApp extends Application {
                 params.put("POLICY_CHANGES", result.get("message"));
                 params.put("HOLIDAY_DETAILS", result.get("message"));
 
-                // Send bulk email
-                CommunicationManager.getInstance().sendBulkEmail(
-                    allTenants,
-                    result.get("subject"),
-                    result.get("template"),
-                    params
-                );
+                // Look up the tenants and send in the background; one bulk email runs at a time
+                taskService.submit("bulk-email", "Emailing all tenants", progress -> {
+                    // Get all tenants with email notifications enabled, in one round trip for the whole portfolio
+                    List<Tenant> allTenants = new ArrayList<>();
+                    if (paged != null) {
+                        allTenants.addAll(dbManager.getAllTenants());
+                    } else {
+                        Map<String, List<Tenant>> tenantsByProperty = dbManager.getTenantsForProperties(propertyIds);
+                        for (String propertyId : propertyIds) {
+                            allTenants.addAll(tenantsByProperty.getOrDefault(propertyId, List.of()));
+                        }
+                    }
 
-                showSavedStatus("Bulk email sent successfully");
+                    // Send bulk email
+                    CommunicationManager.getInstance().sendBulkEmail(
+                        allTenants,
+                        result.get("subject"),
+                        result.get("template"),
+                        params,
+                        progress
+                    );
+                    return null;
+                }).whenComplete((ignored, error) -> showSavedStatus(
+                    error == null ? "Bulk email sent successfully" : "Bulk email was not completed"));
             });
         });
 
@@ -1288,8 +1614,18 @@ public class PropertyApp extends Application {
             java.io.File file = fileChooser.showSaveDialog(table.getScene().getWindow());
             
             if (file != null) {
-                ReportGenerator.generatePdfReport(table.getItems(), file.getAbsolutePath());
-                showSavedStatus("PDF report generated successfully");
+                // Rows are copied here so table edits cannot race the export; a paged table only holds
+                // a window of rows, so its report reads the portfolio itself
+                List<Property> rows = paged != null ? null : copyOf(table.getItems());
+                String path = file.getAbsolutePath();
+                taskService.submit("export:" + path, "Exporting " + file.getName(), progress -> {
+                    if (rows == null) {
+                        ReportGenerator.generatePortfolioPdfReport(dbManager, path);
+                    } else {
+                        ReportGenerator.generatePdfReport(rows, dbManager.getPortfolioRollups(), path);
+                    }
+                    return null;
+                }).thenRun(() -> showSavedStatus("PDF report generated successfully"));
             }
         });
         
@@ -1301,11 +1637,69 @@ public class PropertyApp extends Application {
             java.io.File file = fileChooser.showSaveDialog(table.getScene().getWindow());
             
             if (file != null) {
-                ReportGenerator.exportToExcel(table.getItems(), file.getAbsolutePath());
-                showSavedStatus("Excel report generated successfully");
+                List<Property> rows = paged != null ? null : copyOf(table.getItems());
+                String path = file.getAbsolutePath();
+                taskService.submit("export:" + path, "Exporting " + file.getName(), progress -> {
+                    if (rows == null) {
+                        ReportGenerator.exportPortfolioToExcel(dbManager, path);
+                    } else {
+                        ReportGenerator.exportToExcel(rows, dbManager.getPortfolioRollups(), path);
+                    }
+                    return null;
+                }).thenRun(() -> showSavedStatus("Excel report generated successfully"));
+            }
+        });
+
+        // Live backup: the database stays open and usable while the copy is taken
+        backupButton.setOnAction(e -> {
+            javafx.stage.FileChooser fileChooser = new javafx.stage.FileChooser();
+            fileChooser.setTitle("Save Database Backup");
+            fileChooser.getExtensionFilters().addAll(
+                new javafx.stage.FileChooser.ExtensionFilter("Compressed Backup", "*.db.gz"),
+                new javafx.stage.FileChooser.ExtensionFilter("Database Files", "*.db"));
+            java.io.File file = fileChooser.showSaveDialog(table.getScene().getWindow());
+
+            if (file != null) {
+                String path = file.getAbsolutePath();
+                taskService.submit("backup", "Backing up database",
+                        progress -> dbManager.backupDatabaseOnline(path, path.endsWith(".gz"), progress))
+                    .whenComplete((target, error) -> {
+                        if (error == null) {
+                            showSavedStatus("Database backed up successfully");
+                        } else if (!(error instanceof java.util.concurrent.CancellationException)) {
+                            showSavedStatus("Database backup failed");
+                        }
+                    });
             }
         });
 
+        // Moves closed years of payments, expenses and maintenance out of the tables used day to day
+        archiveButton.setOnAction(e -> {
+            int currentYear = LocalDate.now().getYear();
+            List<Integer> years = new ArrayList<>();
+            for (int year = currentYear - 1; year >= currentYear - 10; year--) {
+                years.add(year);
+            }
+            javafx.scene.control.ChoiceDialog<Integer> dialog = new javafx.scene.control.ChoiceDialog<>(years.get(0), years);
+            dialog.setTitle("Archive History");
+            dialog.setHeaderText("Archive history recorded before the start of the chosen year");
+            dialog.setContentText("Keep history from:");
+
+            dialog.showAndWait().ifPresent(firstOpenYear -> {
+                LocalDate cutoff = LocalDate.of(firstOpenYear, 1, 1);
+                taskService.submit("archive", "Archiving history before " + firstOpenYear,
+                        progress -> dbManager.archiveHistory(firstOpenYear, cutoff))
+                    .whenComplete((moved, error) -> {
+                        if (error != null || moved.isEmpty()) {
+                            showSavedStatus("History could not be archived");
+                        } else {
+                            int rows = moved.values().stream().mapToInt(Integer::intValue).sum();
+                            showSavedStatus("Archived " + rows + " rows from before " + firstOpenYear);
+                        }
+                    });
+            });
+        });
+
         // Search and filter container
         HBox searchContainer = new HBox(10);
         searchContainer.setAlignment(Pos.CENTER_LEFT);
@@ -1313,65 +1707,116 @@ public class PropertyApp extends Application {
             searchField,
             new Label("Status:"),
             statusFilter,
+            new Label("Type:"),
+            houseTypeFilter,
+            new Label("Rent:"),
+            minRentField,
+            maxRentField,
             new Label("Sort:"),
             sortBy,
             new javafx.scene.control.Separator(javafx.geometry.Orientation.VERTICAL),
             exportPdfButton,
             exportExcelButton,
-            bulkEmailButton
+            bulkEmailButton,
+            backupButton,
+            archiveButton
         );
 
-        // Add search functionality
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue == null || newValue.isEmpty()) {
-                table.setItems(properties);
-            } else {
-                ObservableList<Property> filteredList = properties.filtered(property ->
-                    property.getPropertyId().toLowerCase().contains(newValue.toLowerCase()) ||
-                    property.getOwnerName().toLowerCase().contains(newValue.toLowerCase()) ||
-                    property.getAddress().toLowerCase().contains(newValue.toLowerCase()) ||
-                    property.getStatus().toLowerCase().contains(newValue.toLowerCase())
-                );
-                table.setItems(filteredList);
+        // Add search functionality, debounced so a burst of keystrokes runs one search.
+        // The property's own fields are answered from the in-memory index straight away; properties
+        // whose description, tenants, expenses or maintenance match are added once the full-text search returns.
+        PropertySearchIndex index = propertySearchIndex;
+        PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchDebounce.playFromStart());
+        searchDebounce.setOnFinished(e -> {
+            String query = searchField.getText();
+            if (query == null || query.isEmpty()) {
+                tableModel.setTextMatches(null);
+                return;
             }
+            Set<Property> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+            matches.addAll(index.search(query));
+            tableModel.setTextMatches(matches);
+
+            asyncDb.read(db -> db.search(query, SEARCH_RESULT_LIMIT)).thenAccept(results -> {
+                // A later search has already replaced this one
+                if (!query.equals(searchField.getText())) {
+                    return;
+                }
+                Set<String> relatedIds = new HashSet<>();
+                for (List<SearchResult> group : results.values()) {
+                    for (SearchResult result : group) {
+                        if (result.propertyId() != null) {
+                            relatedIds.add(result.propertyId());
+                        }
+                    }
+                }
+                boolean widened = false;
+                for (Property property : properties) {
+                    if (relatedIds.contains(property.getPropertyId()) && matches.add(property)) {
+                        widened = true;
+                    }
+                }
+                if (widened) {
+                    tableModel.setTextMatches(matches);
+                }
+            });
         });
 
-        // Add status filter functionality
+        // Filters combine: the table shows the properties that pass the search and every filter
         statusFilter.setOnAction(e -> {
-            String filter = statusFilter.getValue();
-            ObservableList<Property> currentItems = searchField.getText().isEmpty() ? properties : table.getItems();
-            
-            if (filter.equals("All Statuses")) {
-                table.setItems(currentItems);
-            } else {
-                String status = filter.equals("Rented Only") ? "Rented" : "Vacant";
-                ObservableList<Property> filteredList = currentItems.filtered(property ->
-                    property.getStatus().equals(status)
-                );
-                table.setItems(filteredList);
+            switch (statusFilter.getValue()) {
+                case "Rented Only":
+                    tableModel.setStatus("Rented");
+                    break;
+                case "Vacant Only":
+                    tableModel.setStatus("Vacant");
+                    break;
+                default:
+                    tableModel.setStatus(null);
+                    break;
             }
         });
 
-        // Add sorting functionality
+        houseTypeFilter.setOnAction(e -> tableModel.setHouseType(
+            "All Types".equals(houseTypeFilter.getValue()) ? null : houseTypeFilter.getValue()));
+
+        // Blank or unparseable bounds leave that side of the range open
+        javafx.beans.value.ChangeListener<String> rentRangeListener = (observable, oldValue, newValue) ->
+            tableModel.setRentRange(parseRentPence(minRentField.getText()), parseRentPence(maxRentField.getText()));
+        minRentField.textProperty().addListener(rentRangeListener);
+        maxRentField.textProperty().addListener(rentRangeListener);
+
+        // Searching and filtering need the whole portfolio in memory
+        if (paged != null) {
+            searchField.setPromptText("Search is unavailable for very large portfolios");
+            for (Node control : List.of(searchField, statusFilter, houseTypeFilter, minRentField, maxRentField)) {
+                control.setDisable(true);
+            }
+        }
+
+        // Add sorting functionality; a sorted column header overrides this until its sort is cleared
         sortBy.setOnAction(e -> {
-            String sort = sortBy.getValue();
-            ObservableList<Property> currentItems = table.getItems();
-            
-            switch (sort) {
+            if (paged != null) {
+                paged.setSort(pagedSort(sortBy.getValue()));
+                return;
+            }
+            switch (sortBy.getValue()) {
                 case "Sort by ID":
-                    FXCollections.sort(currentItems, (p1, p2) -> 
-                        p1.getPropertyId().compareTo(p2.getPropertyId()));
+                    chosenSort.set(Comparator.comparing(Property::getPropertyId));
                     break;
                 case "Sort by Rent (High to Low)":
-                    FXCollections.sort(currentItems, (p1, p2) -> 
-                        Double.compare(p2.getMonthlyRent(), p1.getMonthlyRent()));
+                    chosenSort.set(Comparator.comparingLong(Property::getMonthlyRentPence).reversed());
                     break;
                 case "Sort by Profit (High to Low)":
-                    FXCollections.sort(currentItems, (p1, p2) -> 
-                        Double.compare(p2.getMonthlyProfit(), p1.getMonthlyProfit()));
+                    chosenSort.set(Comparator.comparingLong(Property::getMonthlyProfitPence).reversed());
                     break;
             }
         });
+        // The paged list may still hold the order chosen in an earlier view, so it follows the combo box
+        if (paged != null) {
+            paged.setSort(pagedSort(sortBy.getValue()));
+        }
 
         // Header container
         VBox headerContainer = new VBox(10);
@@ -1394,39 +1839,13 @@ public class PropertyApp extends Application {
         Label totalProfitLabel = new Label();
         totalProfitLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
         
-        // Initial calculations
-        double initialTotalMortgage = properties.stream()
-            .mapToDouble(Property::getMonthlyMortgage)
-            .sum();
-        double initialTotalProfit = properties.stream()
-            .mapToDouble(Property::getMonthlyProfit)
-            .sum();
-        
-        totalMortgageLabel.setText(String.format("Total Monthly Mortgage: £%.2f", initialTotalMortgage));
-        totalProfitLabel.setText(String.format("Total Monthly Profit: £%.2f", initialTotalProfit));
-        
-        // Update totals and summary cards whenever the table items change
-        table.getItems().addListener((javafx.collections.ListChangeListener.Change<? extends Property> c) -> {
-            double totalProfit = table.getItems().stream()
-                .mapToDouble(Property::getMonthlyProfit)
-                .sum();
-            double totalMortgage = table.getItems().stream()
-                .mapToDouble(Property::getMonthlyMortgage)
-                .sum();
-                
-            totalProfitLabel.setText(String.format("Total Monthly Profit: £%.2f", totalProfit));
-            totalMortgageLabel.setText(String.format("Total Monthly Mortgage: £%.2f", totalMortgage));
-            
-            // Update summary cards
-            propCount.setText(String.valueOf(table.getItems().size()));
-            long currentRentedCount = table.getItems().stream()
-                .filter(p -> p.getStatus().equals("Rented"))
-                .count();
-            double currentOccupancyRate = table.getItems().isEmpty() ? 0 : 
-                (double) currentRentedCount / table.getItems().size() * 100;
-            occRate.setText(String.format("%.1f%%", currentOccupancyRate));
-            incomeAmount.setText(String.format("£%.2f", totalProfit));
-        });
+        // Bound to the running totals, so each edit only updates the labels whose total moved
+        totalMortgageLabel.textProperty().bind(Bindings.createStringBinding(
+            () -> "Total Monthly Mortgage: " + Money.format(totals.totalMortgagePenceProperty().get()),
+            totals.totalMortgagePenceProperty()));
+        totalProfitLabel.textProperty().bind(Bindings.createStringBinding(
+            () -> "Total Monthly Profit: " + Money.format(totals.totalProfitPenceProperty().get()),
+            totals.totalProfitPenceProperty()));
         
         totalsContainer.getChildren().addAll(totalMortgageLabel, spacer, totalProfitLabel);
 
@@ -1444,7 +1863,8 @@ public class PropertyApp extends Application {
         mainTabs.getTabs().addAll(propertiesTab, calendarTab);
 
         // Main container
-        mainLayout.getChildren().addAll(mainTabs);
+        // Running exports and email sends are listed below the tabs, whichever tab is showing
+        mainLayout.getChildren().addAll(mainTabs, new TaskTray(taskService));
         mainLayout.setStyle(MAIN_BACKGROUND);
 
         return new Scene(mainLayout);
@@ -1452,14 +1872,11 @@ public class PropertyApp extends Application {
 
     private void showSavedStatus(String message) {
         statusLabel.setText(message);
-        new Thread(() -> {
-            try {
-                Thread.sleep(2000);
-                javafx.application.Platform.runLater(() -> statusLabel.setText(""));
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }).start();
+        if (statusTimer == null) {
+            statusTimer = new PauseTransition(STATUS_DISPLAY_TIME);
+            statusTimer.setOnFinished(e -> statusLabel.setText(""));
+        }
+        statusTimer.playFromStart();
     }
 
     private void showAlert(String title, String content) {
@@ -1501,6 +1918,7 @@ public class PropertyApp extends Application {
         int firstDayOfWeek = firstOfMonth.getDayOfWeek().getValue() - 1;
 
         // Add dates to calendar
+        Map<LocalDate, VBox> dateBoxes = new HashMap<>();
         for (int i = 1; i <= monthLength; i++) {
             LocalDate date = LocalDate.of(today.getYear(), today.getMonth(), i);
             VBox dateBox = new VBox(5);
@@ -1515,19 +1933,25 @@ public class PropertyApp extends Application {
 
             Label dateLabel = new Label(String.valueOf(i));
             dateBox.getChildren().add(dateLabel);
+            dateBoxes.put(date, dateBox);
 
-            // Add payment indicators for each property
-            for (Property property : properties) {
-                List<LocalDate> payments = dbManager.getRentPaymentDates(property.getPropertyId());
-                if (payments.contains(date)) {
-                    Label paymentLabel = new Label("• " + property.getPropertyId());
+            calendar.add(dateBox, (firstDayOfWeek + i - 1) % 7, (firstDayOfWeek + i - 1) / 7 + 1);
+        }
+
+        // One range query for the whole month, in the background; payment indicators appear when it returns
+        asyncDb.read(db -> db.getRentPaymentsInRange(firstOfMonth, firstOfMonth.withDayOfMonth(monthLength)))
+            .thenAccept(paymentsByDate -> paymentsByDate.forEach((date, propertyIds) -> {
+                VBox dateBox = dateBoxes.get(date);
+                if (dateBox == null) {
+                    return;
+                }
+                // Add payment indicators for each property paid on this date
+                for (String propertyId : propertyIds) {
+                    Label paymentLabel = new Label("• " + propertyId);
                     paymentLabel.setStyle("-fx-text-fill: #27ae60;");
                     dateBox.getChildren().add(paymentLabel);
                 }
-            }
-
-            calendar.add(dateBox, (firstDayOfWeek + i - 1) % 7, (firstDayOfWeek + i - 1) / 7 + 1);
-        }
+            }));
 
         container.getChildren().addAll(title, calendar);
         return container;
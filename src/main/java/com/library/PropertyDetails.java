@@ -0,0 +1,53 @@
+package com.library;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Everything the property details dialog shows for one property, loaded together
+public class PropertyDetails {
+    private final String propertyId;
+    private final List<LocalDate> paymentDates;
+    private final List<PropertyExpense> expenses;
+    private final Money totalExpenses;
+    private final List<Tenant> tenants;
+    private final List<RentPayment> rentPayments;
+    private final List<MaintenanceRequest> maintenanceRequests;
+
+    public PropertyDetails(String propertyId, List<LocalDate> paymentDates, List<PropertyExpense> expenses,
+                           Money totalExpenses, List<Tenant> tenants, List<RentPayment> rentPayments,
+                           List<MaintenanceRequest> maintenanceRequests) {
+        this.propertyId = propertyId;
+        this.paymentDates = List.copyOf(paymentDates);
+        this.expenses = List.copyOf(expenses);
+        this.totalExpenses = totalExpenses;
+        this.tenants = List.copyOf(tenants);
+        this.rentPayments = List.copyOf(rentPayments);
+        this.maintenanceRequests = List.copyOf(maintenanceRequests);
+    }
+
+    public String getPropertyId() { return propertyId; }
+    public List<LocalDate> getPaymentDates() { return paymentDates; }
+    public List<PropertyExpense> getExpenses() { return expenses; }
+    public Money getTotalExpenses() { return totalExpenses; }
+    public List<Tenant> getTenants() { return tenants; }
+    public List<RentPayment> getRentPayments() { return rentPayments; }
+    public List<MaintenanceRequest> getMaintenanceRequests() { return maintenanceRequests; }
+
+    // Cache weight in rows, so one large property counts for as much as many small ones
+    int weight() {
+        return 1 + paymentDates.size() + expenses.size() + tenants.size() + rentPayments.size()
+            + maintenanceRequests.size();
+    }
+
+    boolean containsTenant(int tenantId) {
+        return tenants.stream().anyMatch(t -> t.getId() == tenantId);
+    }
+
+    boolean containsExpense(int expenseId) {
+        return expenses.stream().anyMatch(e -> e.getId() == expenseId);
+    }
+
+    boolean containsMaintenanceRequest(int requestId) {
+        return maintenanceRequests.stream().anyMatch(r -> r.getId() == requestId);
+    }
+}
@@ -0,0 +1,107 @@
+package com.library;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/*
+ * Bounded LRU of PropertyDetails keyed by property ID. The bound is a total row weight rather
+ * than an entry count, so a few very large properties cannot pin the heap. Every invalidation
+ * bumps a generation counter; a load that started before an invalidation is not stored, which
+ * keeps a slow read from putting back data a concurrent write has just replaced.
+ */
+public class PropertyDetailsCache {
+    private final Map<String, PropertyDetails> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxWeight;
+    private long weight;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PropertyDetailsCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public synchronized PropertyDetails get(String propertyId) {
+        PropertyDetails details = entries.get(propertyId);
+        if (details != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return details;
+    }
+
+    // Read before loading and pass to put, so the result is dropped if anything was invalidated meanwhile
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(PropertyDetails details, long loadedAtGeneration) {
+        if (loadedAtGeneration != generation || details.weight() > maxWeight) {
+            return;
+        }
+        PropertyDetails previous = entries.put(details.getPropertyId(), details);
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += details.weight();
+        evictToFit();
+    }
+
+    public synchronized void invalidate(String propertyId) {
+        generation++;
+        PropertyDetails removed = entries.remove(propertyId);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    // For writes that only know a child row's ID, such as a tenant moved to another property
+    public synchronized void invalidateIf(Predicate<PropertyDetails> stale) {
+        generation++;
+        Iterator<PropertyDetails> it = entries.values().iterator();
+        while (it.hasNext()) {
+            PropertyDetails details = it.next();
+            if (stale.test(details)) {
+                weight -= details.weight();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        evictToFit();
+    }
+
+    private void evictToFit() {
+        Iterator<PropertyDetails> it = entries.values().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            weight -= it.next().weight();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getWeight() { return weight; }
+    public synchronized long getMaxWeight() { return maxWeight; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries (%d/%d rows), %d hits, %d misses, %d evictions",
+            entries.size(), weight, maxWeight, hits, misses, evictions);
+    }
+}
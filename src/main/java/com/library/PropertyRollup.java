@@ -0,0 +1,26 @@
+package com.library;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+// Per-property totals produced by DatabaseManager.getPortfolioRollups() in a single grouped pass
+public record PropertyRollup(
+        String propertyId,
+        Money totalExpenses,
+        Map<String, Money> expensesByCategory,
+        Map<YearMonth, Money> rentReceivedByMonth,
+        int openMaintenanceCount,
+        Money maintenanceCost) {
+
+    public static PropertyRollup empty(String propertyId) {
+        return new PropertyRollup(propertyId, Money.ZERO, Map.of(), Map.of(), 0, Money.ZERO);
+    }
+
+    public Money totalRentReceived() {
+        long pence = 0;
+        for (Money month : rentReceivedByMonth.values()) {
+            pence += month.pence();
+        }
+        return Money.ofPence(pence);
+    }
+}
@@ -0,0 +1,172 @@
+package com.library;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * In-memory substring search over property ID, owner, address and status. Each property's fields
+ * are lowercased once into a single key and its trigrams are posted to an inverted index, so a
+ * query only verifies the properties sharing its rarest trigram instead of lowercasing every row
+ * on every keystroke. The index follows the watched list and is told about in-place edits through
+ * update(). A query that extends the previous one is answered by filtering the previous result.
+ * Must be used on the FX thread, like the list it watches.
+ */
+public class PropertySearchIndex {
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final Map<PropertyApp.Property, String> keys = new IdentityHashMap<>();
+    private final Map<Long, Set<PropertyApp.Property>> postings = new HashMap<>();
+    // The last query and its matches, dropped whenever the index changes
+    private String lastQuery;
+    private List<PropertyApp.Property> lastResult;
+
+    private final ListChangeListener<PropertyApp.Property> listener = change -> {
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue;
+            }
+            if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    update(change.getList().get(i));
+                }
+                continue;
+            }
+            for (PropertyApp.Property removed : change.getRemoved()) {
+                remove(removed);
+            }
+            for (PropertyApp.Property added : change.getAddedSubList()) {
+                add(added);
+            }
+        }
+    };
+
+    public PropertySearchIndex(ObservableList<PropertyApp.Property> properties) {
+        for (PropertyApp.Property property : properties) {
+            add(property);
+        }
+        properties.addListener(listener);
+    }
+
+    public void detach(ObservableList<PropertyApp.Property> properties) {
+        properties.removeListener(listener);
+    }
+
+    // Re-indexes a property after its ID, owner, address or status was edited in place
+    public void update(PropertyApp.Property property) {
+        String key = keys.get(property);
+        if (key != null && !key.equals(keyOf(property))) {
+            remove(property);
+            add(property);
+        }
+    }
+
+    // Properties whose ID, owner, address or status contain the query, ignoring case
+    public List<PropertyApp.Property> search(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            return new ArrayList<>(keys.keySet());
+        }
+        if (needle.equals(lastQuery)) {
+            return new ArrayList<>(lastResult);
+        }
+
+        // Anything matching a longer query also matched the shorter one it extends
+        Iterable<PropertyApp.Property> candidates = lastQuery != null && needle.contains(lastQuery)
+            ? lastResult
+            : candidatesFor(needle);
+        List<PropertyApp.Property> matches = new ArrayList<>();
+        for (PropertyApp.Property property : candidates) {
+            if (keys.get(property).contains(needle)) {
+                matches.add(property);
+            }
+        }
+
+        lastQuery = needle;
+        lastResult = matches;
+        return new ArrayList<>(matches);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    // Queries shorter than a trigram verify every key; longer ones only the smallest posting list
+    private Iterable<PropertyApp.Property> candidatesFor(String needle) {
+        if (needle.length() < 3) {
+            return keys.keySet();
+        }
+        Set<PropertyApp.Property> smallest = null;
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            Set<PropertyApp.Property> posting = postings.get(trigram(needle, i));
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private void add(PropertyApp.Property property) {
+        String key = keyOf(property);
+        String previous = keys.put(property, key);
+        if (previous != null) {
+            unpost(property, previous);
+        }
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            postings.computeIfAbsent(trigram(key, i), t -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                .add(property);
+        }
+        invalidateLastResult();
+    }
+
+    private void remove(PropertyApp.Property property) {
+        String key = keys.remove(property);
+        if (key != null) {
+            unpost(property, key);
+            invalidateLastResult();
+        }
+    }
+
+    private void unpost(PropertyApp.Property property, String key) {
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            long trigram = trigram(key, i);
+            Set<PropertyApp.Property> posting = postings.get(trigram);
+            if (posting != null) {
+                posting.remove(property);
+                if (posting.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private void invalidateLastResult() {
+        lastQuery = null;
+        lastResult = null;
+    }
+
+    // The separator keeps a query from matching across the end of one field and the start of the next
+    private static String keyOf(PropertyApp.Property property) {
+        return (nullToEmpty(property.getPropertyId()) + FIELD_SEPARATOR + nullToEmpty(property.getOwnerName())
+            + FIELD_SEPARATOR + nullToEmpty(property.getAddress()) + FIELD_SEPARATOR
+            + nullToEmpty(property.getStatus())).toLowerCase(Locale.ROOT);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static long trigram(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+}
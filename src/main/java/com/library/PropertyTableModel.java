@@ -0,0 +1,114 @@
+package com.library;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/*
+ * The properties table's one view of the portfolio: a FilteredList over the full property list
+ * feeding a SortedList. Every filter is a separate criterion and the table shows the rows that
+ * pass all of them, so the order filters are chosen in never matters. Changing a criterion swaps
+ * the predicate once; adding, removing or editing a property is propagated incrementally by the
+ * lists themselves.
+ */
+public class PropertyTableModel {
+    private final ObservableList<PropertyApp.Property> source;
+    private final FilteredList<PropertyApp.Property> filtered;
+    private final SortedList<PropertyApp.Property> sorted;
+    private final ObjectProperty<Comparator<PropertyApp.Property>> comparator = new SimpleObjectProperty<>();
+
+    // A null criterion lets every property through
+    private Set<PropertyApp.Property> textMatches;
+    private String status;
+    private Long minRentPence;
+    private Long maxRentPence;
+    private String houseType;
+
+    public PropertyTableModel(ObservableList<PropertyApp.Property> source) {
+        this.source = source;
+        this.filtered = new FilteredList<>(source);
+        this.sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(comparator);
+    }
+
+    public ObservableList<PropertyApp.Property> items() {
+        return sorted;
+    }
+
+    // Properties matched by the search box, or null when it is empty
+    public void setTextMatches(Set<PropertyApp.Property> textMatches) {
+        this.textMatches = textMatches;
+        refilter();
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+        refilter();
+    }
+
+    // Inclusive bounds in pence; either may be null
+    public void setRentRange(Long minRentPence, Long maxRentPence) {
+        this.minRentPence = minRentPence;
+        this.maxRentPence = maxRentPence;
+        refilter();
+    }
+
+    public void setHouseType(String houseType) {
+        this.houseType = houseType;
+        refilter();
+    }
+
+    public void setComparator(Comparator<PropertyApp.Property> comparator) {
+        this.comparator.unbind();
+        this.comparator.set(comparator);
+    }
+
+    // Column header sorting takes precedence; with no column sorted the chosen comparator applies
+    public void bindHeaderComparator(ObservableValue<Comparator<PropertyApp.Property>> headerComparator,
+                                     ObservableValue<Comparator<PropertyApp.Property>> fallback) {
+        comparator.bind(Bindings.createObjectBinding(
+            () -> headerComparator.getValue() != null ? headerComparator.getValue() : fallback.getValue(),
+            headerComparator, fallback));
+    }
+
+    // Re-publishes a row edited in place, so the filters, the sort and other list listeners see its new values
+    public void refresh(int viewIndex) {
+        int sourceIndex = filtered.getSourceIndex(sorted.getSourceIndex(viewIndex));
+        source.set(sourceIndex, source.get(sourceIndex));
+    }
+
+    private void refilter() {
+        Set<PropertyApp.Property> text = textMatches;
+        String statusCriterion = status;
+        Long min = minRentPence;
+        Long max = maxRentPence;
+        String type = houseType;
+
+        Predicate<PropertyApp.Property> predicate = property -> true;
+        if (text != null) {
+            predicate = predicate.and(text::contains);
+        }
+        if (statusCriterion != null) {
+            predicate = predicate.and(property -> statusCriterion.equals(property.getStatus()));
+        }
+        if (min != null) {
+            predicate = predicate.and(property -> property.getMonthlyRentPence() >= min);
+        }
+        if (max != null) {
+            predicate = predicate.and(property -> property.getMonthlyRentPence() <= max);
+        }
+        if (type != null) {
+            predicate = predicate.and(property -> type.equals(property.getHouseType()));
+        }
+        // A null predicate is FilteredList's fast path for showing everything
+        filtered.setPredicate(text == null && statusCriterion == null && min == null && max == null && type == null
+            ? null : predicate);
+    }
+}
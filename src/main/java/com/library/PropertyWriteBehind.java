@@ -0,0 +1,194 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.util.Duration;
+
+/*
+ * Buffers table edits in front of DatabaseManager.saveProperty. Edits to the same property
+ * coalesce into one pending entry, and the whole buffer is written as a single batch once the
+ * user pauses (IDLE_DELAY) or, during a long run of edits, once the oldest edit reaches
+ * MAX_DELAY. Edits in a batch that fails are queued again, unless the property was edited or
+ * discarded since, and retried after MAX_DELAY. A new property is held back until it has an ID, since
+ * it cannot be stored without one. Must only be used from the JavaFX application thread.
+ */
+public class PropertyWriteBehind {
+    private static final Duration IDLE_DELAY = Duration.millis(600);
+    private static final Duration MAX_DELAY = Duration.seconds(3);
+    private static final long SYNC_FLUSH_TIMEOUT_SECONDS = 10;
+
+    private final AsyncDatabaseManager asyncDb;
+    // Keyed by identity because the property ID itself is editable; the list keeps first-edit order
+    private final Map<PropertyApp.Property, Boolean> pending = new IdentityHashMap<>();
+    private final List<PropertyApp.Property> pendingOrder = new ArrayList<>();
+    // Properties in batches still being written, counted per batch; discard drops them so a retry cannot resurrect them
+    private final Map<PropertyApp.Property, Integer> saving = new IdentityHashMap<>();
+    private final PauseTransition idleTimer = new PauseTransition(IDLE_DELAY);
+    private final PauseTransition maxDelayTimer = new PauseTransition(MAX_DELAY);
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("All changes saved");
+    private final ReadOnlyBooleanWrapper dirty = new ReadOnlyBooleanWrapper(false);
+    private int inFlight;
+    // Shown instead of the pending count until a later flush succeeds
+    private String lastError;
+
+    public PropertyWriteBehind(AsyncDatabaseManager asyncDb) {
+        this.asyncDb = asyncDb;
+        idleTimer.setOnFinished(e -> flush());
+        maxDelayTimer.setOnFinished(e -> flush());
+    }
+
+    public void markDirty(PropertyApp.Property property) {
+        if (pending.put(property, Boolean.TRUE) == null) {
+            pendingOrder.add(property);
+        }
+        // Properties still waiting for an ID may already be pending, so size alone cannot tell a new run of edits
+        if (maxDelayTimer.getStatus() != Animation.Status.RUNNING) {
+            maxDelayTimer.playFromStart();
+        }
+        idleTimer.playFromStart();
+        updateStatus();
+    }
+
+    // Drops queued edits for a property that is about to be deleted so a later flush cannot resurrect it
+    public void discard(PropertyApp.Property property) {
+        saving.remove(property);
+        if (pending.remove(property) != null) {
+            pendingOrder.remove(property);
+            if (pendingOrder.isEmpty()) {
+                stopTimers();
+                if (inFlight == 0) {
+                    // Nothing is left to retry, so the last failure no longer applies
+                    lastError = null;
+                }
+            }
+            updateStatus();
+        }
+    }
+
+    public void flush() {
+        List<PropertyApp.Property> properties = drain();
+        if (properties.isEmpty()) {
+            return;
+        }
+        List<PropertyApp.Property> snapshots = copies(properties);
+        properties.forEach(property -> saving.merge(property, 1, Integer::sum));
+        inFlight++;
+        updateStatus();
+        asyncDb.write(db -> db.saveProperties(snapshots)).whenComplete((result, error) -> {
+            inFlight--;
+            if (error != null) {
+                lastError = "Could not save changes";
+                properties.forEach(this::requeue);
+            } else if (!result.isSuccessful()) {
+                lastError = "Could not save changes: " + result;
+                result.getFailures().forEach(failure -> requeue(properties.get(failure.getIndex())));
+            } else if (inFlight == 0) {
+                lastError = null;
+            }
+            properties.forEach(this::doneSaving);
+            if (lastError != null && !pendingOrder.isEmpty()) {
+                // Retried after a pause rather than straight away, in case the database is busy
+                idleTimer.stop();
+                maxDelayTimer.playFromStart();
+            }
+            updateStatus();
+        });
+    }
+
+    // Blocks until buffered edits reach the database; used on logout and application exit
+    public void flushAndWait() {
+        List<PropertyApp.Property> properties = drain();
+        // Properties that never got an ID cannot be written; they are dropped, as saveProperty always did
+        pending.clear();
+        pendingOrder.clear();
+        if (properties.isEmpty()) {
+            updateStatus();
+            return;
+        }
+        List<PropertyApp.Property> snapshots = copies(properties);
+        try {
+            BatchResult<PropertyApp.Property> result = asyncDb.writeAndWait(db -> db.saveProperties(snapshots),
+                SYNC_FLUSH_TIMEOUT_SECONDS);
+            if (!result.isSuccessful()) {
+                System.err.println("Write-behind flush incomplete: " + result);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        updateStatus();
+    }
+
+    public ReadOnlyStringProperty statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    public ReadOnlyBooleanProperty dirtyProperty() {
+        return dirty.getReadOnlyProperty();
+    }
+
+    // Takes every pending property that has an ID; the rest wait in pending until an ID is set
+    private List<PropertyApp.Property> drain() {
+        stopTimers();
+        List<PropertyApp.Property> drained = new ArrayList<>(pendingOrder.size());
+        for (PropertyApp.Property property : pendingOrder) {
+            if (!property.getPropertyId().isEmpty()) {
+                drained.add(property);
+            }
+        }
+        for (PropertyApp.Property property : drained) {
+            pending.remove(property);
+        }
+        pendingOrder.removeIf(property -> !pending.containsKey(property));
+        return drained;
+    }
+
+    // Copies are taken on the FX thread so later edits cannot race the background write
+    private static List<PropertyApp.Property> copies(List<PropertyApp.Property> properties) {
+        List<PropertyApp.Property> snapshots = new ArrayList<>(properties.size());
+        for (PropertyApp.Property property : properties) {
+            snapshots.add(property.copy());
+        }
+        return snapshots;
+    }
+
+    // A property edited again since the drain is already pending with newer values; a discarded one is dropped
+    private void requeue(PropertyApp.Property property) {
+        if (saving.containsKey(property) && pending.put(property, Boolean.TRUE) == null) {
+            pendingOrder.add(property);
+        }
+    }
+
+    private void doneSaving(PropertyApp.Property property) {
+        saving.computeIfPresent(property, (p, batches) -> batches > 1 ? batches - 1 : null);
+    }
+
+    private void stopTimers() {
+        idleTimer.stop();
+        maxDelayTimer.stop();
+    }
+
+    private void updateStatus() {
+        if (lastError != null) {
+            status.set(lastError);
+            dirty.set(true);
+        } else if (!pendingOrder.isEmpty()) {
+            status.set(pendingOrder.size() == 1 ? "1 unsaved change" : pendingOrder.size() + " unsaved changes");
+            dirty.set(true);
+        } else if (inFlight > 0) {
+            status.set("Saving...");
+            dirty.set(true);
+        } else {
+            status.set("All changes saved");
+            dirty.set(false);
+        }
+    }
+}
@@ -10,16 +10,44 @@ import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.FileOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ReportGenerator {
+    private static final int STREAMING_ROW_WINDOW = 200;
+    private static final String[] EXCEL_COLUMNS = {"Property ID", "Owner", "Address", "Monthly Rent", "Monthly Mortgage",
+                              "Status", "Monthly Profit", "Bedrooms", "Living Rooms", "Kitchens",
+                              "Bathrooms", "House Type", "Description", "Total Expenses", "Rent Received",
+                              "Open Maintenance", "Maintenance Cost"};
     
-    public static void generatePdfReport(List<PropertyApp.Property> properties, String filePath) {
+    public static void generatePdfReport(List<PropertyApp.Property> properties, Map<String, PropertyRollup> rollups,
+                                         String filePath) {
+        writePdfReport(properties::forEach, rollups, filePath);
+    }
+
+    // Streams the whole portfolio from the database, flushing the table to the file as it goes
+    public static void generatePortfolioPdfReport(DatabaseManager dbManager, String filePath) {
+        writePdfReport(dbManager::streamProperties, dbManager.getPortfolioRollups(), filePath);
+    }
+
+    private static class PdfTotals {
+        // Totals are summed in pence so they match the database to the penny
+        long expenses;
+        long rentReceived;
+        int openMaintenance;
+        int rows;
+    }
+
+    private static void writePdfReport(Consumer<Consumer<PropertyApp.Property>> rows,
+                                       Map<String, PropertyRollup> rollups, String filePath) {
         try (PdfWriter writer = new PdfWriter(filePath);
              PdfDocument pdf = new PdfDocument(writer);
              Document document = new Document(pdf)) {
@@ -37,11 +65,12 @@ public class ReportGenerator {
                 .setFontSize(12));
 
             // Create table
-            Table table = new Table(UnitValue.createPercentArray(new float[]{2, 2, 3, 2, 2, 2, 2}));
+            // Large-table mode, so rows already written can be flushed out of memory
+            Table table = new Table(UnitValue.createPercentArray(new float[]{2, 2, 3, 2, 2, 2, 2, 2}), true);
             table.setWidth(UnitValue.createPercentValue(100));
 
             // Add headers
-            String[] headers = {"Property ID", "Owner", "Address", "Rent", "Mortgage", "Status", "Profit"};
+            String[] headers = {"Property ID", "Owner", "Address", "Rent", "Mortgage", "Status", "Profit", "Expenses"};
             for (String header : headers) {
                 Cell cell = new Cell().add(new Paragraph(header));
                 cell.setBold();
@@ -49,40 +78,65 @@ public class ReportGenerator {
             }
 
             // Add data
-            double totalRent = 0;
-            double totalMortgage = 0;
-            double totalProfit = 0;
-
-            for (PropertyApp.Property property : properties) {
+            PdfTotals totals = new PdfTotals();
+            // The rent, occupancy and house type figures come from a columnar copy filled as the rows go by
+            PortfolioSnapshot.Builder snapshotBuilder = new PortfolioSnapshot.Builder(STREAMING_ROW_WINDOW);
+            document.add(table);
+            rows.accept(property -> {
+                PropertyRollup rollup = rollups.getOrDefault(property.getPropertyId(),
+                    PropertyRollup.empty(property.getPropertyId()));
                 table.addCell(new Cell().add(new Paragraph(property.getPropertyId())));
                 table.addCell(new Cell().add(new Paragraph(property.getOwnerName())));
                 table.addCell(new Cell().add(new Paragraph(property.getAddress())));
-                table.addCell(new Cell().add(new Paragraph(String.format("£%.2f", property.getMonthlyRent()))));
-                table.addCell(new Cell().add(new Paragraph(String.format("£%.2f", property.getMonthlyMortgage()))));
+                table.addCell(new Cell().add(new Paragraph(Money.format(property.getMonthlyRentPence()))));
+                table.addCell(new Cell().add(new Paragraph(Money.format(property.getMonthlyMortgagePence()))));
                 table.addCell(new Cell().add(new Paragraph(property.getStatus())));
-                table.addCell(new Cell().add(new Paragraph(String.format("£%.2f", property.getMonthlyProfit()))));
-
-                totalRent += property.getMonthlyRent();
-                totalMortgage += property.getMonthlyMortgage();
-                totalProfit += property.getMonthlyProfit();
-            }
-
-            document.add(table);
+                table.addCell(new Cell().add(new Paragraph(Money.format(property.getMonthlyProfitPence()))));
+                table.addCell(new Cell().add(new Paragraph(rollup.totalExpenses().toString())));
+
+                snapshotBuilder.add(property);
+                totals.expenses += rollup.totalExpenses().pence();
+                totals.rentReceived += rollup.totalRentReceived().pence();
+                totals.openMaintenance += rollup.openMaintenanceCount();
+                if (++totals.rows % STREAMING_ROW_WINDOW == 0) {
+                    table.flush();
+                }
+            });
+            table.complete();
+            PortfolioSnapshot snapshot = snapshotBuilder.build();
 
             // Add summary
             document.add(new Paragraph("\nSummary")
                 .setBold()
                 .setFontSize(14));
-            document.add(new Paragraph(String.format("Total Monthly Rent: £%.2f", totalRent)));
-            document.add(new Paragraph(String.format("Total Monthly Mortgage: £%.2f", totalMortgage)));
-            document.add(new Paragraph(String.format("Total Monthly Profit: £%.2f", totalProfit)));
+            document.add(new Paragraph("Total Monthly Rent: " + Money.format(snapshot.totalRentPence())));
+            document.add(new Paragraph("Total Monthly Mortgage: " + Money.format(snapshot.totalMortgagePence())));
+            document.add(new Paragraph("Total Monthly Profit: " + Money.format(snapshot.totalProfitPence())));
+            document.add(new Paragraph("Total Expenses: " + Money.format(totals.expenses)));
+            document.add(new Paragraph("Total Rent Received: " + Money.format(totals.rentReceived)));
+            document.add(new Paragraph(String.format("Open Maintenance Requests: %d", totals.openMaintenance)));
+            document.add(new Paragraph(String.format("Occupancy Rate: %.1f%% (%d rented, %d vacant)",
+                snapshot.occupancyRate(), snapshot.rentedCount(), snapshot.vacantCount())));
+            document.add(new Paragraph("Median Monthly Rent: " + Money.format(snapshot.rentPercentile(50))));
+
+            // Add breakdown by house type
+            document.add(new Paragraph("\nBy House Type")
+                .setBold()
+                .setFontSize(14));
+            Map<String, Long> rentByType = snapshot.totalRentByHouseType();
+            Map<String, Long> profitByType = snapshot.totalProfitByHouseType();
+            for (Map.Entry<String, Long> entry : rentByType.entrySet()) {
+                document.add(new Paragraph(entry.getKey() + ": rent " + Money.format(entry.getValue())
+                    + ", profit " + Money.format(profitByType.getOrDefault(entry.getKey(), 0L))));
+            }
 
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    public static void exportToExcel(List<PropertyApp.Property> properties, String filePath) {
+    public static void exportToExcel(List<PropertyApp.Property> properties, Map<String, PropertyRollup> rollups,
+                                     String filePath) {
         try (Workbook workbook = new XSSFWorkbook()) {
             Sheet sheet = workbook.createSheet("Properties");
 
@@ -94,9 +148,7 @@ public class ReportGenerator {
 
             // Create header row
             Row headerRow = sheet.createRow(0);
-            String[] columns = {"Property ID", "Owner", "Address", "Monthly Rent", "Monthly Mortgage", 
-                              "Status", "Monthly Profit", "Bedrooms", "Living Rooms", "Kitchens", 
-                              "Bathrooms", "House Type", "Description"};
+            String[] columns = EXCEL_COLUMNS;
             
             for (int i = 0; i < columns.length; i++) {
                 org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
@@ -107,20 +159,7 @@ public class ReportGenerator {
             // Create data rows
             int rowNum = 1;
             for (PropertyApp.Property property : properties) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(property.getPropertyId());
-                row.createCell(1).setCellValue(property.getOwnerName());
-                row.createCell(2).setCellValue(property.getAddress());
-                row.createCell(3).setCellValue(property.getMonthlyRent());
-                row.createCell(4).setCellValue(property.getMonthlyMortgage());
-                row.createCell(5).setCellValue(property.getStatus());
-                row.createCell(6).setCellValue(property.getMonthlyProfit());
-                row.createCell(7).setCellValue(property.getBedrooms());
-                row.createCell(8).setCellValue(property.getLivingRooms());
-                row.createCell(9).setCellValue(property.getKitchens());
-                row.createCell(10).setCellValue(property.getBathrooms());
-                row.createCell(11).setCellValue(property.getHouseType());
-                row.createCell(12).setCellValue(property.getDescription());
+                writePropertyRow(sheet.createRow(rowNum++), property, rollups);
             }
 
             // Autosize columns
@@ -136,4 +175,68 @@ public class ReportGenerator {
             e.printStackTrace();
         }
     }
+
+    // Streams the whole portfolio from the database; only a window of rows is kept in memory at a time
+    public static void exportPortfolioToExcel(DatabaseManager dbManager, String filePath) {
+        Map<String, PropertyRollup> rollups = dbManager.getPortfolioRollups();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Properties");
+            sheet.trackAllColumnsForAutoSizing();
+
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < EXCEL_COLUMNS.length; i++) {
+                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
+                cell.setCellValue(EXCEL_COLUMNS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+
+            int[] rowNum = {1};
+            dbManager.streamProperties(property -> writePropertyRow(sheet.createRow(rowNum[0]++), property, rollups));
+
+            for (int i = 0; i < EXCEL_COLUMNS.length; i++) {
+                sheet.autoSizeColumn(i);
+            }
+
+            try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
+                workbook.write(fileOut);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            workbook.dispose();
+            try {
+                workbook.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void writePropertyRow(Row row, PropertyApp.Property property, Map<String, PropertyRollup> rollups) {
+        PropertyRollup rollup = rollups.getOrDefault(property.getPropertyId(),
+            PropertyRollup.empty(property.getPropertyId()));
+        row.createCell(0).setCellValue(property.getPropertyId());
+        row.createCell(1).setCellValue(property.getOwnerName());
+        row.createCell(2).setCellValue(property.getAddress());
+        row.createCell(3).setCellValue(property.getMonthlyRent());
+        row.createCell(4).setCellValue(property.getMonthlyMortgage());
+        row.createCell(5).setCellValue(property.getStatus());
+        row.createCell(6).setCellValue(property.getMonthlyProfit());
+        row.createCell(7).setCellValue(property.getBedrooms());
+        row.createCell(8).setCellValue(property.getLivingRooms());
+        row.createCell(9).setCellValue(property.getKitchens());
+        row.createCell(10).setCellValue(property.getBathrooms());
+        row.createCell(11).setCellValue(property.getHouseType());
+        row.createCell(12).setCellValue(property.getDescription());
+        row.createCell(13).setCellValue(rollup.totalExpenses().toPounds());
+        row.createCell(14).setCellValue(rollup.totalRentReceived().toPounds());
+        row.createCell(15).setCellValue(rollup.openMaintenanceCount());
+        row.createCell(16).setCellValue(rollup.maintenanceCost().toPounds());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,726 @@
+package com.library;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SchemaMigrator {
+
+    @FunctionalInterface
+    interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    static class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+        private final boolean rebuildsTables;
+
+        Migration(int version, String description, MigrationStep step) {
+            this(version, description, step, false);
+        }
+
+        // Table rebuilds have to run with foreign key enforcement off, which SQLite only allows outside a transaction
+        Migration(int version, String description, MigrationStep step, boolean rebuildsTables) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+            this.rebuildsTables = rebuildsTables;
+        }
+
+        static Migration sql(int version, String description, String... statements) {
+            return new Migration(version, description, connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    for (String statement : statements) {
+                        stmt.execute(statement);
+                    }
+                }
+            });
+        }
+
+        int getVersion() { return version; }
+        String getDescription() { return description; }
+    }
+
+    // Ordered by version; every step must be safe to re-run against a partially migrated database
+    private static final List<Migration> MIGRATIONS = List.of(
+        Migration.sql(1, "Index per-property and per-tenant lookups",
+            "CREATE INDEX IF NOT EXISTS idx_tenants_property ON tenants(property_id)",
+            "CREATE INDEX IF NOT EXISTS idx_maintenance_property_reported ON maintenance_requests(property_id, reported_date)",
+            "CREATE INDEX IF NOT EXISTS idx_rent_dates_property_date ON rent_payment_dates(property_id, payment_date)",
+            "CREATE INDEX IF NOT EXISTS idx_rent_payments_tenant_date ON rent_payments(tenant_id, payment_date)",
+            "CREATE INDEX IF NOT EXISTS idx_expenses_property_date ON property_expenses(property_id, expense_date)",
+            "CREATE INDEX IF NOT EXISTS idx_photos_property_uploaded ON property_photos(property_id, upload_date)"),
+        new Migration(2, "Stable property IDs with display order and cascading child rows",
+            SchemaMigrator::addDisplayOrderAndCascades, true),
+        Migration.sql(3, "Index rent payment dates for portfolio-wide date ranges",
+            "CREATE INDEX IF NOT EXISTS idx_rent_dates_date_property ON rent_payment_dates(payment_date, property_id)"),
+        new Migration(4, "Move tenant documents and payment history into child tables",
+            SchemaMigrator::normalizeTenantDocumentsAndPayments),
+        new Migration(5, "Store dates as INTEGER epoch days",
+            SchemaMigrator::convertDatesToEpochDays, true),
+        new Migration(6, "Store money as INTEGER pence",
+            SchemaMigrator::convertMoneyToPence, true),
+        new Migration(7, "Full-text search index over properties, tenants, expenses and maintenance",
+            SchemaMigrator::createSearchIndex),
+        Migration.sql(8, "Registry and running totals for archived history",
+            """
+                CREATE TABLE IF NOT EXISTS archive_partitions (
+                    source_table TEXT NOT NULL,
+                    year INTEGER NOT NULL,
+                    table_name TEXT NOT NULL,
+                    row_count INTEGER NOT NULL DEFAULT 0,
+                    PRIMARY KEY (source_table, year)
+                )
+            """,
+            """
+                CREATE TABLE IF NOT EXISTS archive_totals (
+                    kind TEXT NOT NULL,
+                    property_id TEXT NOT NULL,
+                    bucket TEXT NOT NULL,
+                    total INTEGER NOT NULL,
+                    row_count INTEGER NOT NULL,
+                    PRIMARY KEY (kind, property_id, bucket),
+                    FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+                )
+            """),
+        // The profit expression must match DatabaseManager.PropertySort.PROFIT_DESC for the planner to use it
+        Migration.sql(9, "Index every property table sort on (sort key, property_id) for keyset paging",
+            "CREATE INDEX IF NOT EXISTS idx_properties_order_id ON properties(display_order, property_id)",
+            "CREATE INDEX IF NOT EXISTS idx_properties_rent_id ON properties(monthly_rent, property_id)",
+            "CREATE INDEX IF NOT EXISTS idx_properties_profit_id ON properties("
+                + "(CASE WHEN status = 'Vacant' THEN 0 ELSE monthly_rent - monthly_mortgage END), property_id)")
+    );
+
+    private SchemaMigrator() {
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+
+    public static int getSchemaVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Applies every migration newer than the database's user_version, each in its own transaction
+    public static void migrate(Connection connection) throws SQLException {
+        int currentVersion = getSchemaVersion(connection);
+        for (Migration migration : MIGRATIONS) {
+            if (migration.getVersion() <= currentVersion) {
+                continue;
+            }
+
+            if (migration.rebuildsTables) {
+                setForeignKeys(connection, false);
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                migration.step.apply(connection);
+                if (migration.rebuildsTables) {
+                    checkForeignKeys(connection);
+                }
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + migration.getVersion());
+                }
+                connection.commit();
+                currentVersion = migration.getVersion();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Migration " + migration.getVersion() + " (" + migration.getDescription()
+                    + ") failed", e);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+                if (migration.rebuildsTables) {
+                    setForeignKeys(connection, true);
+                }
+            }
+        }
+    }
+
+    private static void setForeignKeys(Connection connection, boolean enabled) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = " + (enabled ? "ON" : "OFF"));
+        }
+    }
+
+    private static void addDisplayOrderAndCascades(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (!columnExists(connection, "properties", "display_order")) {
+                stmt.execute("ALTER TABLE properties ADD COLUMN display_order INTEGER");
+            }
+            // Seed the ordinal from the old ID order so existing portfolios keep their on-screen order
+            stmt.execute("""
+                UPDATE properties SET display_order = ranked.n
+                FROM (SELECT property_id, ROW_NUMBER() OVER (ORDER BY property_id) AS n FROM properties) AS ranked
+                WHERE properties.property_id = ranked.property_id AND properties.display_order IS NULL
+            """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_properties_display_order ON properties(display_order)");
+        }
+
+        /*
+         * Child rows whose property is already gone, many left behind by the old renumbering of
+         * property IDs, would break the new foreign keys. They are kept with their link cleared and
+         * the old value recorded in orphaned_rows, so nothing the user entered is lost.
+         */
+        int orphans = 0;
+        for (String table : List.of("property_expenses", "rent_payment_dates", "tenants", "maintenance_requests",
+                "property_photos")) {
+            orphans += detachOrphans(connection, table, "property_id",
+                "SELECT property_id FROM properties WHERE property_id IS NOT NULL");
+        }
+        orphans += detachOrphans(connection, "rent_payments", "tenant_id",
+            "SELECT id FROM tenants WHERE id IS NOT NULL");
+        if (orphans > 0) {
+            System.err.println("Migration 2: " + orphans + " rows referred to a missing property or tenant;"
+                + " their links were cleared and recorded in orphaned_rows");
+        }
+
+        rebuildTable(connection, "property_expenses", """
+            CREATE TABLE property_expenses (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                description TEXT,
+                amount REAL,
+                expense_date TEXT,
+                category TEXT,
+                notes TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of());
+        rebuildTable(connection, "rent_payment_dates", """
+            CREATE TABLE rent_payment_dates (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                payment_date TEXT,
+                amount REAL,
+                status TEXT,
+                notes TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of());
+        rebuildTable(connection, "tenants", """
+            CREATE TABLE tenants (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name TEXT NOT NULL,
+                email TEXT,
+                phone TEXT,
+                property_id TEXT,
+                lease_start_date TEXT,
+                lease_end_date TEXT,
+                deposit_amount REAL,
+                documents TEXT,
+                payment_history TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of());
+        rebuildTable(connection, "maintenance_requests", """
+            CREATE TABLE maintenance_requests (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                description TEXT,
+                status TEXT,
+                priority TEXT,
+                reported_date TEXT,
+                completed_date TEXT,
+                cost REAL,
+                notes TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of());
+        rebuildTable(connection, "rent_payments", """
+            CREATE TABLE rent_payments (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                tenant_id INTEGER,
+                amount REAL,
+                payment_date TEXT,
+                payment_method TEXT,
+                notes TEXT,
+                FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE
+            )
+        """, Map.of());
+        rebuildTable(connection, "property_photos", """
+            CREATE TABLE property_photos (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                photo_path TEXT,
+                description TEXT,
+                upload_date TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of());
+    }
+
+    // Clears a reference column whose value has no parent row, recording the old value first; returns the rows changed
+    private static int detachOrphans(Connection connection, String table, String column, String parentIds)
+            throws SQLException {
+        String orphaned = " WHERE " + column + " IS NOT NULL AND " + column + " NOT IN (" + parentIds + ")";
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS orphaned_rows (
+                    source_table TEXT NOT NULL,
+                    row_id INTEGER NOT NULL,
+                    column_name TEXT NOT NULL,
+                    old_value TEXT,
+                    PRIMARY KEY (source_table, row_id, column_name)
+                )
+            """);
+            stmt.execute("INSERT OR IGNORE INTO orphaned_rows (source_table, row_id, column_name, old_value) SELECT '"
+                + table + "', id, '" + column + "', " + column + " FROM " + table + orphaned);
+            return stmt.executeUpdate("UPDATE " + table + " SET " + column + " = NULL" + orphaned);
+        }
+    }
+
+    // Rebuilt tables are copied with enforcement off, so any row left pointing at a missing parent fails the migration
+    private static void checkForeignKeys(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA foreign_key_check")) {
+            if (rs.next()) {
+                throw new SQLException("Foreign key check failed: " + rs.getString(1) + " row " + rs.getLong(2)
+                    + " refers to a missing " + rs.getString(3) + " row");
+            }
+        }
+    }
+
+    private static void normalizeTenantDocumentsAndPayments(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS tenant_documents (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    tenant_id INTEGER NOT NULL,
+                    document_path TEXT NOT NULL,
+                    added_date TEXT,
+                    FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE
+                )
+            """);
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_tenant_documents_tenant_path ON tenant_documents(tenant_id, document_path)");
+
+            if (columnExists(connection, "tenants", "documents")) {
+                // Split the comma-joined paths into one row each, keeping their original order
+                stmt.execute("""
+                    INSERT OR IGNORE INTO tenant_documents (tenant_id, document_path)
+                    WITH RECURSIVE split(tenant_id, path, rest) AS (
+                        SELECT id, '', documents || ',' FROM tenants WHERE documents IS NOT NULL AND documents <> ''
+                        UNION ALL
+                        SELECT tenant_id, substr(rest, 1, instr(rest, ',') - 1), substr(rest, instr(rest, ',') + 1)
+                        FROM split WHERE rest <> ''
+                    )
+                    SELECT tenant_id, trim(path) FROM split WHERE trim(path) <> ''
+                """);
+                stmt.execute("ALTER TABLE tenants DROP COLUMN documents");
+            }
+
+            if (columnExists(connection, "tenants", "payment_history")) {
+                // The application only ever wrote '[]' here and no entry format was defined, so rather than
+                // guess at keys, any other history is kept verbatim, one row per tenant, for manual review
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS legacy_payment_history (
+                        tenant_id INTEGER PRIMARY KEY,
+                        history TEXT NOT NULL,
+                        FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE
+                    )
+                """);
+                stmt.execute("""
+                    INSERT OR IGNORE INTO legacy_payment_history (tenant_id, history)
+                    SELECT id, payment_history FROM tenants
+                    WHERE payment_history IS NOT NULL AND trim(payment_history) NOT IN ('', '[]')
+                """);
+                stmt.execute("ALTER TABLE tenants DROP COLUMN payment_history");
+            }
+        }
+    }
+
+    // ISO date text to days since 1970-01-01; values that are already integers are left alone so the step can re-run
+    private static String toEpochDay(String column) {
+        return "CASE WHEN typeof(" + column + ") = 'text' THEN CAST(julianday(" + column + ") - 2440587.5 AS INTEGER) ELSE "
+            + column + " END";
+    }
+
+    private static void convertDatesToEpochDays(Connection connection) throws SQLException {
+        rebuildTable(connection, "property_expenses", """
+            CREATE TABLE property_expenses (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                description TEXT,
+                amount REAL,
+                expense_date INTEGER,
+                category TEXT,
+                notes TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of("expense_date", toEpochDay("expense_date")));
+        rebuildTable(connection, "rent_payment_dates", """
+            CREATE TABLE rent_payment_dates (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                payment_date INTEGER,
+                amount REAL,
+                status TEXT,
+                notes TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of("payment_date", toEpochDay("payment_date")));
+        rebuildTable(connection, "tenants", """
+            CREATE TABLE tenants (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name TEXT NOT NULL,
+                email TEXT,
+                phone TEXT,
+                property_id TEXT,
+                lease_start_date INTEGER,
+                lease_end_date INTEGER,
+                deposit_amount REAL,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of("lease_start_date", toEpochDay("lease_start_date"),
+                    "lease_end_date", toEpochDay("lease_end_date")));
+        rebuildTable(connection, "maintenance_requests", """
+            CREATE TABLE maintenance_requests (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                description TEXT,
+                status TEXT,
+                priority TEXT,
+                reported_date INTEGER,
+                completed_date INTEGER,
+                cost REAL,
+                notes TEXT,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of("reported_date", toEpochDay("reported_date"),
+                    "completed_date", toEpochDay("completed_date")));
+        rebuildTable(connection, "rent_payments", """
+            CREATE TABLE rent_payments (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                tenant_id INTEGER,
+                amount REAL,
+                payment_date INTEGER,
+                payment_method TEXT,
+                notes TEXT,
+                FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE
+            )
+        """, Map.of("payment_date", toEpochDay("payment_date")));
+        rebuildTable(connection, "property_photos", """
+            CREATE TABLE property_photos (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                property_id TEXT,
+                photo_path TEXT,
+                description TEXT,
+                upload_date INTEGER,
+                FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+            )
+        """, Map.of("upload_date", toEpochDay("upload_date")));
+        rebuildTable(connection, "tenant_documents", """
+            CREATE TABLE tenant_documents (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                tenant_id INTEGER NOT NULL,
+                document_path TEXT NOT NULL,
+                added_date INTEGER,
+                FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE
+            )
+        """, Map.of("added_date", toEpochDay("added_date")));
+    }
+
+    // REAL pounds to INTEGER pence, rounded to the nearest penny
+    private static String toPence(String column) {
+        return "CAST(round(" + column + " * 100) AS INTEGER)";
+    }
+
+    private static void convertMoneyToPence(Connection connection) throws SQLException {
+        // A column that is already INTEGER was converted by an earlier run and must not be scaled twice
+        if (!"INTEGER".equalsIgnoreCase(columnType(connection, "properties", "monthly_rent"))) {
+            rebuildTable(connection, "properties", """
+                CREATE TABLE properties (
+                    property_id TEXT PRIMARY KEY,
+                    owner_name TEXT,
+                    address TEXT,
+                    monthly_rent INTEGER,
+                    monthly_mortgage INTEGER,
+                    status TEXT,
+                    bedrooms INTEGER,
+                    living_rooms INTEGER,
+                    kitchens INTEGER,
+                    house_type TEXT,
+                    bathrooms INTEGER,
+                    description TEXT,
+                    display_order INTEGER
+                )
+            """, Map.of("monthly_rent", toPence("monthly_rent"),
+                        "monthly_mortgage", toPence("monthly_mortgage")));
+        }
+        if (!"INTEGER".equalsIgnoreCase(columnType(connection, "tenants", "deposit_amount"))) {
+            rebuildTable(connection, "tenants", """
+                CREATE TABLE tenants (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT NOT NULL,
+                    email TEXT,
+                    phone TEXT,
+                    property_id TEXT,
+                    lease_start_date INTEGER,
+                    lease_end_date INTEGER,
+                    deposit_amount INTEGER,
+                    FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+                )
+            """, Map.of("deposit_amount", toPence("deposit_amount")));
+        }
+        if (!"INTEGER".equalsIgnoreCase(columnType(connection, "property_expenses", "amount"))) {
+            rebuildTable(connection, "property_expenses", """
+                CREATE TABLE property_expenses (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    property_id TEXT,
+                    description TEXT,
+                    amount INTEGER,
+                    expense_date INTEGER,
+                    category TEXT,
+                    notes TEXT,
+                    FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+                )
+            """, Map.of("amount", toPence("amount")));
+        }
+        if (!"INTEGER".equalsIgnoreCase(columnType(connection, "rent_payment_dates", "amount"))) {
+            rebuildTable(connection, "rent_payment_dates", """
+                CREATE TABLE rent_payment_dates (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    property_id TEXT,
+                    payment_date INTEGER,
+                    amount INTEGER,
+                    status TEXT,
+                    notes TEXT,
+                    FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+                )
+            """, Map.of("amount", toPence("amount")));
+        }
+        if (!"INTEGER".equalsIgnoreCase(columnType(connection, "rent_payments", "amount"))) {
+            rebuildTable(connection, "rent_payments", """
+                CREATE TABLE rent_payments (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    tenant_id INTEGER,
+                    amount INTEGER,
+                    payment_date INTEGER,
+                    payment_method TEXT,
+                    notes TEXT,
+                    FOREIGN KEY (tenant_id) REFERENCES tenants(id) ON DELETE CASCADE
+                )
+            """, Map.of("amount", toPence("amount")));
+        }
+        if (!"INTEGER".equalsIgnoreCase(columnType(connection, "maintenance_requests", "cost"))) {
+            rebuildTable(connection, "maintenance_requests", """
+                CREATE TABLE maintenance_requests (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    property_id TEXT,
+                    description TEXT,
+                    status TEXT,
+                    priority TEXT,
+                    reported_date INTEGER,
+                    completed_date INTEGER,
+                    cost INTEGER,
+                    notes TEXT,
+                    FOREIGN KEY (property_id) REFERENCES properties(property_id) ON DELETE CASCADE ON UPDATE CASCADE
+                )
+            """, Map.of("cost", toPence("cost")));
+        }
+    }
+
+    /*
+     * One searchable document per property, tenant, expense and maintenance request lives in
+     * search_documents, keyed by (entity_type, entity_id) under a stable INTEGER doc_id. The FTS5
+     * table search_index uses it as external content, so the text is stored once and the index
+     * rows follow doc_id. Triggers on the source tables keep the documents current, and triggers
+     * on search_documents keep the FTS index in step with them.
+     */
+    static void createSearchIndex(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String source : List.of("properties", "tenants", "property_expenses", "maintenance_requests", "search_documents")) {
+                for (String suffix : List.of("ai", "au", "ad")) {
+                    stmt.execute("DROP TRIGGER IF EXISTS search_" + source + "_" + suffix);
+                }
+            }
+            stmt.execute("DROP TABLE IF EXISTS search_index");
+            stmt.execute("DROP TABLE IF EXISTS search_documents");
+
+            stmt.execute("""
+                CREATE TABLE search_documents (
+                    doc_id INTEGER PRIMARY KEY,
+                    entity_type TEXT NOT NULL,
+                    entity_id TEXT NOT NULL,
+                    property_id TEXT,
+                    title TEXT,
+                    body TEXT,
+                    UNIQUE (entity_type, entity_id)
+                )
+            """);
+            // Prefix indexes make the "term*" queries typed into the search box index lookups rather than scans
+            stmt.execute("""
+                CREATE VIRTUAL TABLE search_index USING fts5(
+                    title, body,
+                    content = 'search_documents', content_rowid = 'doc_id',
+                    tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'
+                )
+            """);
+
+            // Expressions name the row as {row}: new/old inside triggers, the table itself when populating.
+            // Phone numbers are also indexed without spaces or dashes so either form finds them
+            String[][] sources = {
+                {"properties", SearchResult.PROPERTY, "{row}.property_id", "{row}.property_id", "{row}.address",
+                    joinText("{row}.property_id", "{row}.owner_name", "{row}.description"),
+                    "property_id, owner_name, address, description"},
+                {"tenants", SearchResult.TENANT, "CAST({row}.id AS TEXT)", "{row}.property_id", "{row}.name",
+                    joinText("{row}.email", "{row}.phone", "replace(replace({row}.phone, ' ', ''), '-', '')"),
+                    "property_id, name, email, phone"},
+                {"property_expenses", SearchResult.EXPENSE, "CAST({row}.id AS TEXT)", "{row}.property_id",
+                    "{row}.description", "NULL",
+                    "property_id, description"},
+                {"maintenance_requests", SearchResult.MAINTENANCE, "CAST({row}.id AS TEXT)", "{row}.property_id",
+                    "{row}.description", "NULL",
+                    "property_id, description"}
+            };
+            for (String[] source : sources) {
+                stmt.execute("INSERT INTO search_documents (entity_type, entity_id, property_id, title, body) SELECT '"
+                    + source[1] + "', " + columns(source, 2, source[0]) + " FROM " + source[0]);
+                createSourceTriggers(stmt, source);
+            }
+
+            stmt.execute("INSERT INTO search_index (search_index) VALUES ('rebuild')");
+            stmt.execute("""
+                CREATE TRIGGER search_search_documents_ai AFTER INSERT ON search_documents BEGIN
+                    INSERT INTO search_index (rowid, title, body) VALUES (new.doc_id, new.title, new.body);
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER search_search_documents_ad AFTER DELETE ON search_documents BEGIN
+                    INSERT INTO search_index (search_index, rowid, title, body) VALUES ('delete', old.doc_id, old.title, old.body);
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER search_search_documents_au AFTER UPDATE ON search_documents BEGIN
+                    INSERT INTO search_index (search_index, rowid, title, body) VALUES ('delete', old.doc_id, old.title, old.body);
+                    INSERT INTO search_index (rowid, title, body) VALUES (new.doc_id, new.title, new.body);
+                END
+            """);
+        }
+    }
+
+    // source = {table, entity type, id expr, property expr, title expr, body expr, watched columns}
+    private static void createSourceTriggers(Statement stmt, String[] source) throws SQLException {
+        String table = source[0];
+        String type = source[1];
+        String upsert = "INSERT INTO search_documents (entity_type, entity_id, property_id, title, body) VALUES ('"
+            + type + "', " + columns(source, 2, "new") + ") ON CONFLICT (entity_type, entity_id) DO UPDATE SET"
+            + " property_id = excluded.property_id, title = excluded.title, body = excluded.body;";
+        String oldId = qualify(source[2], "old");
+        String newId = qualify(source[2], "new");
+
+        List<String> changed = new ArrayList<>();
+        for (String column : source[6].split(", ")) {
+            changed.add("old." + column + " IS NOT new." + column);
+        }
+
+        stmt.execute("CREATE TRIGGER search_" + table + "_ai AFTER INSERT ON " + table + " BEGIN " + upsert + " END");
+        // Saves rewrite every column, so only edits to indexed text touch the index
+        stmt.execute("CREATE TRIGGER search_" + table + "_au AFTER UPDATE ON " + table
+            + " WHEN " + String.join(" OR ", changed) + " BEGIN"
+            + " DELETE FROM search_documents WHERE entity_type = '" + type + "' AND entity_id = " + oldId
+            + " AND " + oldId + " IS NOT " + newId + "; " + upsert + " END");
+        stmt.execute("CREATE TRIGGER search_" + table + "_ad AFTER DELETE ON " + table + " BEGIN"
+            + " DELETE FROM search_documents WHERE entity_type = '" + type + "' AND entity_id = " + oldId + "; END");
+    }
+
+    private static String joinText(String... expressions) {
+        List<String> parts = new ArrayList<>();
+        for (String expression : expressions) {
+            parts.add("COALESCE(" + expression + ", '')");
+        }
+        return String.join(" || ' ' || ", parts);
+    }
+
+    private static String columns(String[] source, int from, String row) {
+        List<String> expressions = new ArrayList<>();
+        for (int i = from; i < from + 4; i++) {
+            expressions.add(qualify(source[i], row));
+        }
+        return String.join(", ", expressions);
+    }
+
+    private static String qualify(String expression, String row) {
+        return expression.replace("{row}", row);
+    }
+
+    static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        return tableColumns(connection, table).contains(column);
+    }
+
+    private static String columnType(Connection connection, String table, String column) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (rs.getString("name").equals(column)) {
+                    return rs.getString("type");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> tableColumns(Connection connection, String table) throws SQLException {
+        Set<String> columns = new LinkedHashSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        return columns;
+    }
+
+    /*
+     * SQLite cannot alter column types or constraints in place, so this follows the documented
+     * recipe: create the new shape under a temporary name, copy the rows across, drop the old
+     * table, rename, and recreate its indexes and triggers. Columns present in both shapes are
+     * copied as-is unless a conversion expression is supplied for them.
+     */
+    static void rebuildTable(Connection connection, String table, String createSql,
+                             Map<String, String> conversions) throws SQLException {
+        String tempTable = table + "_rebuild";
+        List<String> dependentSql = new ArrayList<>();
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT sql FROM sqlite_master WHERE tbl_name = '" + table + "' AND type IN ('index', 'trigger') AND sql IS NOT NULL")) {
+                while (rs.next()) {
+                    dependentSql.add(rs.getString(1));
+                }
+            }
+
+            stmt.execute("DROP TABLE IF EXISTS " + tempTable);
+            stmt.execute(createSql.replaceFirst("CREATE TABLE " + table + " ", "CREATE TABLE " + tempTable + " "));
+
+            Set<String> oldColumns = tableColumns(connection, table);
+            List<String> targets = new ArrayList<>();
+            List<String> sources = new ArrayList<>();
+            for (String column : tableColumns(connection, tempTable)) {
+                if (oldColumns.contains(column)) {
+                    targets.add(column);
+                    sources.add(conversions.getOrDefault(column, column));
+                }
+            }
+            stmt.execute("INSERT INTO " + tempTable + " (" + String.join(", ", targets) + ") SELECT "
+                + String.join(", ", sources) + " FROM " + table);
+
+            stmt.execute("DROP TABLE " + table);
+            stmt.execute("ALTER TABLE " + tempTable + " RENAME TO " + table);
+            for (String sql : dependentSql) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.library;
+
+import java.util.List;
+
+// One full-text match from DatabaseManager.search(); lower rank is a better match
+public record SearchResult(
+        String entityType,
+        String entityId,
+        String propertyId,
+        String title,
+        String snippet,
+        double rank) {
+
+    public static final String PROPERTY = "property";
+    public static final String TENANT = "tenant";
+    public static final String EXPENSE = "expense";
+    public static final String MAINTENANCE = "maintenance";
+
+    // The order DatabaseManager.search() returns its groups in
+    public static final List<String> ENTITY_TYPES = List.of(PROPERTY, TENANT, EXPENSE, MAINTENANCE);
+}
@@ -0,0 +1,140 @@
+package com.library;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs the application's long, blocking work (report exports, email sends) off the JavaFX
+ * application thread as JavaFX Tasks, so each one has a title, progress and message the task tray
+ * can show and a cancel the user can press. Work is submitted under a key: submitting a key that is
+ * still running returns the running task's result instead of starting the same work twice.
+ * Database reads and writes keep going through AsyncDatabaseManager, which orders them for the pool.
+ * Must be called on the FX thread; every returned future completes there.
+ */
+public class TaskService {
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    // What a task's work reports back through; isCancelled lets loops stop early
+    public interface Progress {
+        Progress NONE = new Progress() {
+            @Override
+            public void update(long done, long total, String message) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        };
+
+        void update(long done, long total, String message);
+
+        boolean isCancelled();
+    }
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T call(Progress progress) throws Exception;
+    }
+
+    private static class ServiceTask<T> extends Task<T> implements Progress {
+        private final Work<T> work;
+
+        ServiceTask(String title, Work<T> work) {
+            this.work = work;
+            updateTitle(title);
+        }
+
+        @Override
+        protected T call() throws Exception {
+            return work.call(this);
+        }
+
+        @Override
+        public void update(long done, long total, String message) {
+            updateProgress(done, total);
+            updateMessage(message);
+        }
+    }
+
+    private record Running(Task<?> task, CompletableFuture<?> result) {
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, daemonThreads("task"));
+    private final Map<String, Running> running = new HashMap<>();
+    private final ObservableList<Task<?>> tasks = FXCollections.observableArrayList();
+
+    /*
+     * Starts work in the background under the given key and title. The future completes with the
+     * work's result, exceptionally with its failure, or is cancelled along with the task.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(String key, String title, Work<T> work) {
+        Running existing = running.get(key);
+        if (existing != null) {
+            return (CompletableFuture<T>) existing.result();
+        }
+
+        ServiceTask<T> task = new ServiceTask<>(title, work);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        task.setOnSucceeded(e -> {
+            finish(key, task);
+            result.complete(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            finish(key, task);
+            task.getException().printStackTrace();
+            result.completeExceptionally(task.getException());
+        });
+        task.setOnCancelled(e -> {
+            finish(key, task);
+            result.cancel(false);
+        });
+
+        running.put(key, new Running(task, result));
+        tasks.add(task);
+        executor.execute(task);
+        return result;
+    }
+
+    // Tasks still queued or running, in submission order
+    public ObservableList<Task<?>> tasks() {
+        return FXCollections.unmodifiableObservableList(tasks);
+    }
+
+    // Lets running exports and sends finish so files and mail are not cut off when the application closes
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finish(String key, Task<?> task) {
+        Running current = running.get(key);
+        if (current != null && current.task() == task) {
+            running.remove(key);
+        }
+        tasks.remove(task);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
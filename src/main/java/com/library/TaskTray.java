@@ -0,0 +1,71 @@
+package com.library;
+
+import javafx.beans.binding.Bindings;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/*
+ * A strip listing the TaskService's running tasks, each with its title, latest message, a progress
+ * bar (indeterminate until the task reports a total) and a cancel button. Hidden while idle.
+ */
+public class TaskTray extends HBox {
+    private final Map<Task<?>, Node> entries = new IdentityHashMap<>();
+
+    public TaskTray(TaskService taskService) {
+        setSpacing(15);
+        setPadding(new Insets(8, 12, 8, 12));
+        setAlignment(Pos.CENTER_LEFT);
+        setStyle("-fx-background-color: #eef2f7; -fx-border-color: #d6dde6; -fx-border-radius: 4px;");
+
+        ObservableList<Task<?>> tasks = taskService.tasks();
+        visibleProperty().bind(Bindings.isNotEmpty(tasks));
+        managedProperty().bind(visibleProperty());
+
+        for (Task<?> task : tasks) {
+            add(task);
+        }
+        tasks.addListener((ListChangeListener<Task<?>>) change -> {
+            while (change.next()) {
+                for (Task<?> removed : change.getRemoved()) {
+                    getChildren().remove(entries.remove(removed));
+                }
+                for (Task<?> added : change.getAddedSubList()) {
+                    add(added);
+                }
+            }
+        });
+    }
+
+    private void add(Task<?> task) {
+        Label title = new Label();
+        title.textProperty().bind(task.titleProperty());
+        title.setStyle("-fx-font-size: 12px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+
+        Label message = new Label();
+        message.textProperty().bind(task.messageProperty());
+        message.setStyle("-fx-font-size: 12px; -fx-text-fill: #7f8c8d;");
+
+        ProgressBar progress = new ProgressBar();
+        progress.progressProperty().bind(task.progressProperty());
+        progress.setPrefWidth(120);
+
+        Button cancel = new Button("Cancel");
+        cancel.setStyle("-fx-font-size: 11px; -fx-padding: 2 8; -fx-cursor: hand;");
+        cancel.setOnAction(e -> task.cancel());
+
+        HBox entry = new HBox(8, title, progress, message, cancel);
+        entry.setAlignment(Pos.CENTER_LEFT);
+        entries.put(task, entry);
+        getChildren().add(entry);
+    }
+}
@@ -11,8 +11,7 @@ public class Tenant {
     private LocalDate leaseStartDate;
     private LocalDate leaseEndDate;
     private double depositAmount;
-    private String documents; // Comma-separated list of document paths
-    private String paymentHistory; // JSON string of payment history
+    // Documents and payment history are child rows (tenant_documents, rent_payments) loaded through DatabaseManager
     private String communicationPreferences; // JSON string of communication preferences
     private LocalDate lastContactDate;
     private String lastContactType; // EMAIL, SMS, PHONE
@@ -29,8 +28,6 @@ public class Tenant {
         this.leaseStartDate = leaseStartDate;
         this.leaseEndDate = leaseEndDate;
         this.depositAmount = depositAmount;
-        this.documents = "";
-        this.paymentHistory = "[]";
         this.communicationPreferences = "{}";
         this.lastContactDate = null;
         this.lastContactType = "";
@@ -63,38 +60,6 @@ public class Tenant {
     public double getDepositAmount() { return depositAmount; }
     public void setDepositAmount(double depositAmount) { this.depositAmount = depositAmount; }
 
-    public String getDocuments() { return documents; }
-    public void setDocuments(String documents) { this.documents = documents; }
-
-    public String getPaymentHistory() { return paymentHistory; }
-    public void setPaymentHistory(String paymentHistory) { this.paymentHistory = paymentHistory; }
-
-    public void addDocument(String documentPath) {
-        if (documents.isEmpty()) {
-            documents = documentPath;
-        } else {
-            documents += "," + documentPath;
-        }
-    }
-
-    public void removeDocument(String documentPath) {
-        String[] docs = documents.split(",");
-        StringBuilder newDocs = new StringBuilder();
-        for (String doc : docs) {
-            if (!doc.equals(documentPath)) {
-                if (newDocs.length() > 0) {
-                    newDocs.append(",");
-                }
-                newDocs.append(doc);
-            }
-        }
-        documents = newDocs.toString();
-    }
-
-    public String[] getDocumentList() {
-        return documents.isEmpty() ? new String[0] : documents.split(",");
-    }
-
     // Communication-related methods
     public String getCommunicationPreferences() { return communicationPreferences; }
     public void setCommunicationPreferences(String preferences) { this.communicationPreferences = preferences; }
@@ -126,4 +91,14 @@ public class Tenant {
         this.lastContactDate = LocalDate.now();
         this.lastContactType = type;
     }
+
+    public Tenant copy() {
+        Tenant copy = new Tenant(id, name, email, phone, propertyId, leaseStartDate, leaseEndDate, depositAmount);
+        copy.setCommunicationPreferences(communicationPreferences);
+        copy.setLastContactDate(lastContactDate);
+        copy.setLastContactType(lastContactType);
+        copy.setEmailNotifications(emailNotifications);
+        copy.setSmsNotifications(smsNotifications);
+        return copy;
+    }
 }